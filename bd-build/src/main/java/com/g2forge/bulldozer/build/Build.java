@@ -0,0 +1,188 @@
+package com.g2forge.bulldozer.build;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.event.Level;
+
+import com.g2forge.alexandria.adt.graph.v1.HGraph;
+import com.g2forge.alexandria.command.command.IConstructorCommand;
+import com.g2forge.alexandria.command.command.IStandardCommand;
+import com.g2forge.alexandria.command.exit.IExit;
+import com.g2forge.alexandria.command.invocation.CommandArgument;
+import com.g2forge.alexandria.java.close.ICloseable;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.core.helpers.HCollector;
+import com.g2forge.alexandria.java.fluent.optional.NullableOptional;
+import com.g2forge.alexandria.java.function.IConsumer1;
+import com.g2forge.alexandria.java.function.IFunction1;
+import com.g2forge.alexandria.java.io.HIO;
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.log.HLog;
+import com.g2forge.alexandria.wizard.PropertyStringInput;
+import com.g2forge.bulldozer.build.model.BulldozerBuilt;
+import com.g2forge.bulldozer.build.model.BulldozerHistory;
+import com.g2forge.bulldozer.build.model.BulldozerProject;
+import com.g2forge.bulldozer.build.model.Context;
+import com.g2forge.bulldozer.build.model.DAGExecutor;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Install all the projects in the workspace, or the specified projects, each one as soon as its upstreams have been installed. Projects whose sources, and
+ * whose upstreams, haven't changed since they were last built successfully are skipped.
+ */
+@Data
+@Slf4j
+public class Build implements IConstructorCommand {
+	/** The name of the build task in the {@link BulldozerHistory}. */
+	protected static final String TASK = "Build";
+
+	/** The build hash of an upstream which has never been built, so that building it for the first time changes the hashes of its downstreams. */
+	protected static final String NOT_BUILT = "not built";
+
+	public static final IStandardCommand COMMAND_FACTORY = IStandardCommand.of(invocation -> {
+		final List<? extends CommandArgument<?>> arguments = invocation.getArgumentsAsArguments();
+		final List<String> targets = arguments.subList(1, arguments.size()).stream().map(CommandArgument::getString).toList();
+		return new Build(new Context<BulldozerProject>(BulldozerProject::new, arguments.get(0).getPath()), targets);
+	});
+
+	public static void main(String[] args) throws Throwable {
+		IStandardCommand.main(args, COMMAND_FACTORY);
+	}
+
+	protected final Context<BulldozerProject> context;
+
+	/** The projects to build, or all the projects if this is empty. */
+	protected final List<String> targets;
+
+	/** If true, projects are installed without running their tests. */
+	protected final boolean skipTests = new PropertyStringInput("bulldozer.build.skiptests").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/** If true, every project is built even if nothing has changed since its last build. */
+	protected final boolean force = new PropertyStringInput("bulldozer.build.force").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * Install a set of projects, each one as soon as its upstreams in the set have been installed, starting the longest chains of work first according to the
+	 * {@link BulldozerHistory}. If the calling thread is interrupted, no more projects are started and the running ones are interrupted.
+	 *
+	 * @param context The context.
+	 * @param names The names of the projects to install.
+	 * @param skipTests If true, projects are installed without running their tests.
+	 * @param installed Called with the name of each project once it has been installed.
+	 */
+	public static void install(Context<?> context, Set<String> names, boolean skipTests, IConsumer1<? super String> installed) {
+		log.info("Building {} with {} workers", names, context.getParallelism());
+		final DAGExecutor<String> executor = new DAGExecutor<>(context.getParallelism());
+		for (String name : names) {
+			executor.node(name, HCollection.intersection(context.getGraph().getUpstreams(name), names));
+			final BulldozerHistory history = context.getIndex().get(BulldozerHistory.class, name);
+			final Long estimate = (history == null) ? null : history.estimate(TASK);
+			if (estimate != null) executor.cost(name, estimate);
+		}
+		executor.run(name -> {
+			final BulldozerProject project = context.getNameToProject().get(name);
+			log.info("Installing {}", name);
+			final long start = System.currentTimeMillis();
+			context.getMaven().install(project.getDirectory(), skipTests, HCollection.emptyList());
+			context.getIndex().update(BulldozerHistory.class, name, history -> (history == null ? new BulldozerHistory() : history).record(TASK, System.currentTimeMillis() - start));
+			installed.accept(name);
+			log.info("Installed {}", name);
+		});
+	}
+
+	/**
+	 * Compute the hash of a build of a project, from the hash of its sources and the build hashes of its upstreams.
+	 *
+	 * @param source The hash of the sources of the project.
+	 * @param upstreams The build hashes of the upstreams, by name.
+	 * @return The build hash.
+	 */
+	protected static String computeBuildHash(String source, Map<String, String> upstreams) {
+		final StringBuilder builder = new StringBuilder(source).append('\n');
+		upstreams.forEach((name, hash) -> builder.append(name).append('=').append(hash).append('\n'));
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	/**
+	 * Compute the build hashes of the selected projects. The hash of a build covers the sources of the project, and the builds of the upstreams it will be
+	 * built against. Those are the new builds of the selected upstreams, and the last recorded builds of the others, since that's what is installed.
+	 *
+	 * @param selected The projects which will be built if they've changed.
+	 * @param sources The source hash of each selected project.
+	 * @param upstreams A function from the name of a project to the names of its upstreams.
+	 * @param built A function from the name of a project to the hash of its last recorded build, or <code>null</code> if it has never been built.
+	 * @return The build hash of each selected project.
+	 */
+	public static Map<String, String> computeBuildHashes(Set<String> selected, Map<String, String> sources, IFunction1<? super String, ? extends Set<String>> upstreams, IFunction1<? super String, ? extends String> built) {
+		final Map<String, String> retVal = new LinkedHashMap<>();
+		for (String name : HGraph.toposort(selected, node -> HCollection.intersection(upstreams.apply(node), selected), false)) {
+			final Map<String, String> hashes = new LinkedHashMap<>();
+			for (String upstream : new TreeSet<>(upstreams.apply(name))) {
+				if (selected.contains(upstream)) hashes.put(upstream, retVal.get(upstream));
+				else {
+					final String hash = built.apply(upstream);
+					hashes.put(upstream, (hash == null) ? NOT_BUILT : hash);
+				}
+			}
+			retVal.put(name, computeBuildHash(sources.get(name), hashes));
+		}
+		return retVal;
+	}
+
+	@Override
+	public IExit invoke() throws Throwable {
+		HLog.getLogControl().setLogLevel(Level.INFO);
+		try (ICloseable closeProjects = () -> HIO.closeAll(getContext().getProjects().values())) {
+			getContext().preload();
+
+			final Set<String> selected = new LinkedHashSet<>(getTargets().isEmpty() ? getContext().getProjects().keySet() : getTargets());
+			{ // Report a nice clean error if any of the target projects are unknown
+				final Set<String> unknownProjects = HCollection.difference(selected, getContext().getNameToProject().keySet());
+				if (!unknownProjects.isEmpty()) throw new IllegalArgumentException(String.format("One or more target projects to build (%1$s) are unknown!", unknownProjects.stream().collect(HCollector.joiningHuman())));
+			}
+
+			log.info("Hashing the sources of {} projects", selected.size());
+			final Map<String, String> sources = new ConcurrentHashMap<>();
+			getContext().parallel(selected, name -> {
+				try {
+					sources.put(name, getContext().getNameToProject().get(name).computeSourceHash(filename -> true, true));
+				} catch (IOException exception) {
+					throw new RuntimeIOException(String.format("Failed to hash the sources of %1$s!", name), exception);
+				}
+			});
+			// Upstreams which aren't selected are hashed as they were last built, since that's what is installed and what we will build against
+			final Map<String, String> hashes = computeBuildHashes(selected, sources, name -> HCollection.intersection(getContext().getGraph().getUpstreams(name), getContext().getNameToProject().keySet()), name -> {
+				final BulldozerBuilt built = getContext().getIndex().get(BulldozerBuilt.class, name);
+				return (built == null) ? null : built.getHash();
+			});
+
+			// Find the projects which need to be built, build hashes include the upstreams so the downstreams of a changed project are rebuilt too
+			final Set<String> changed = new LinkedHashSet<>();
+			for (String name : selected) {
+				final BulldozerBuilt built = getContext().getIndex().get(BulldozerBuilt.class, name);
+				if (isForce() || (built == null) || !hashes.get(name).equals(built.getHash())) changed.add(name);
+			}
+			log.info("Up to date: {}", HCollection.difference(selected, changed));
+			if (changed.isEmpty()) return IStandardCommand.SUCCESS;
+
+			install(getContext(), changed, isSkipTests(), name -> getContext().getIndex().put(BulldozerBuilt.class, name, new BulldozerBuilt(hashes.get(name), System.currentTimeMillis())));
+		}
+		return IStandardCommand.SUCCESS;
+	}
+}
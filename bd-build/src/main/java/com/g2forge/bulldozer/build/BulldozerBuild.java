@@ -6,11 +6,14 @@ import com.g2forge.alexandria.command.command.IStructuredCommand;
 public class BulldozerBuild implements IStructuredCommand {
 	public static void main(String[] args) throws Throwable {
 		final DispatchCommand.ManualBuilder builder = new DispatchCommand.ManualBuilder();
+		builder.command(Build.COMMAND_FACTORY, "build");
 		builder.command(Catalog.COMMAND_FACTORY, "catalog");
 		builder.command(CreateProject.COMMAND_FACTORY, "create-project");
 		builder.command(CreatePRs.COMMAND_FACTORY, "create-prs");
 		builder.command(CleanupPRs.COMMAND_FACTORY, "cleanup-prs");
+		builder.command(Impact.COMMAND_FACTORY, "impact");
 		builder.command(Release.COMMAND_FACTORY, "release");
+		builder.command(Watch.COMMAND_FACTORY, "watch");
 		builder.main(args);
 	}
 }
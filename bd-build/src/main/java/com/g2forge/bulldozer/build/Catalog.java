@@ -61,6 +61,7 @@ public class Catalog implements IConstructorCommand {
 	public IExit invoke() throws Throwable {
 		HLog.getLogControl().setLogLevel(Level.INFO);
 		final Block.BlockBuilder docBuilder = Block.builder().type(Block.Type.Block);
+		getContext().preload();
 		final Map<String, BulldozerProject> projects = getContext().getProjects();
 
 		// Create a list of the project names and sort it alphabetically
@@ -113,7 +114,7 @@ public class Catalog implements IConstructorCommand {
 						final BulldozerProject project = projects.get(name);
 
 						dependencies.uclass(PUMLClass.builder().name(project.getName()).stereotypeSpot('P', new StringPUMLColor("LightBlue")).build());
-						project.getDependencies().getImmediate().keySet().stream().filter(inclusive::contains).forEach(d -> dependencies.relation(PUMLRelation.builder().left(d).type(PUMLRelation.Type.Arrow).right(project.getName()).back(true).vertical(true).build()));
+						getContext().getGraph().getImmediateUpstreams(project.getName()).stream().filter(inclusive::contains).forEach(d -> dependencies.relation(PUMLRelation.builder().left(d).type(PUMLRelation.Type.Arrow).right(project.getName()).back(true).vertical(true).build()));
 					}
 
 					// Render the diagram
@@ -53,11 +53,13 @@ public class CleanupPRs implements IConstructorCommand {
 		HLog.getLogControl().setLogLevel(Level.INFO);
 		// Fail if any repositories are dirty
 		if (!allowDirty) getContext().failIfDirty();
+		// Load all the project information in parallel
+		getContext().preload();
 
 		// Find the projects which have the relevant branch
 		final List<String> projects = getContext().getProjects().values().stream().filter(p -> HGit.isBranch(p.getGit(), getBranch())).map(BulldozerProject::getName).collect(Collectors.toList());
 		// Topologically sort the projects
-		final List<String> order = HGraph.toposort(projects, p -> HCollection.intersection(getContext().getNameToProject().get(p).getDependencies().getTransitive().keySet(), projects), false);
+		final List<String> order = HGraph.toposort(projects, p -> HCollection.intersection(getContext().getGraph().getUpstreams(p), projects), false);
 
 		// In topological order...
 		for (String name : order) {
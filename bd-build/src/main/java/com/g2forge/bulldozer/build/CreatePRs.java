@@ -73,11 +73,13 @@ public class CreatePRs implements IConstructorCommand {
 		HLog.getLogControl().setLogLevel(Level.INFO);
 		// Fail if any repositories are dirty
 		if (!allowDirty) getContext().failIfDirty();
+		// Load all the project information in parallel
+		getContext().preload();
 
 		// Find the projects which have the relevant branch
 		final List<String> projects = getContext().getProjects().values().stream().filter(p -> HGit.isBranch(p.getGit(), getBranch())).map(BulldozerProject::getName).collect(Collectors.toList());
 		// Topologically sort the projects
-		final List<String> order = HGraph.toposort(projects, p -> HCollection.intersection(getContext().getNameToProject().get(p).getDependencies().getTransitive().keySet(), projects), false);
+		final List<String> order = HGraph.toposort(projects, p -> HCollection.intersection(getContext().getGraph().getUpstreams(p), projects), false);
 
 		// In topological order...
 		final Map<String, GHPullRequest> projectToPullRequest = new HashMap<>();
@@ -112,7 +114,7 @@ public class CreatePRs implements IConstructorCommand {
 					final String body;
 					{ // Build the PR body
 						final Block.BlockBuilder builder = Block.builder().type(Block.Type.Paragraph);
-						final Set<String> dependencies = project.getDependencies().getImmediate().keySet();
+						final Set<String> dependencies = getContext().getGraph().getImmediateUpstreams(name);
 						if (!dependencies.isEmpty()) {
 							final Text comma = new Text(", ");
 							boolean first = true;
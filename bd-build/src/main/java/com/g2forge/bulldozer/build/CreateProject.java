@@ -120,6 +120,11 @@ public class CreateProject implements IConstructorCommand {
 		Target("/target/"),
 		BulldozerTemp("/" + com.g2forge.bulldozer.build.model.BulldozerTemp.BULLDOZER_TEMP),
 		BulldozerState("/" + Release.State.BULLDOZER_STATE),
+		BulldozerReleaseState("/" + Release.State.BULLDOZER_RELEASE_STATE),
+		BulldozerIndex("/" + com.g2forge.bulldozer.build.model.BulldozerIndex.BULLDOZER_INDEX),
+		BulldozerStaging("/" + Release.BULLDOZER_STAGING + "/"),
+		BulldozerScratch("/" + Release.BULLDOZER_SCRATCH + "/"),
+		BulldozerJournal("/" + com.g2forge.bulldozer.build.model.BulldozerJournal.BULLDOZER_JOURNAL + "/"),
 		Factorypath("/.factorypath");
 
 		public static GitIgnore createIgnore() {
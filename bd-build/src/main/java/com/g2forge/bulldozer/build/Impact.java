@@ -0,0 +1,257 @@
+package com.g2forge.bulldozer.build;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.slf4j.event.Level;
+
+import com.g2forge.alexandria.adt.graph.v1.HGraph;
+import com.g2forge.alexandria.command.command.IConstructorCommand;
+import com.g2forge.alexandria.command.command.IStandardCommand;
+import com.g2forge.alexandria.command.exit.IExit;
+import com.g2forge.alexandria.command.invocation.CommandArgument;
+import com.g2forge.alexandria.java.close.ICloseable;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.core.helpers.HCollector;
+import com.g2forge.alexandria.java.fluent.optional.NullableOptional;
+import com.g2forge.alexandria.java.io.HIO;
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.log.HLog;
+import com.g2forge.alexandria.wizard.PropertyStringInput;
+import com.g2forge.bulldozer.build.model.BulldozerProject;
+import com.g2forge.bulldozer.build.model.Context;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Find the projects affected by a set of changes, which are the projects containing the changed files and all their downstreams, and print them in build
+ * order. This is the minimal set of projects to rebuild and test to verify the changes. Each argument after the workspace is a git range, either
+ * <code>repository=range</code> for one repository or just <code>range</code> for every repository which isn't given its own. A range of the form
+ * <code>from..to</code> compares two commits (<code>from...to</code> is not supported), and a single revision compares that revision to the working tree.
+ * Repositories without a range are compared to their working tree, including untracked files, so with no ranges at all the uncommitted changes are analyzed.
+ * Changed files which aren't inside any project, such as a shared parent POM at the root of a repository, are assumed to affect every project in the
+ * repository.
+ */
+@Data
+@Slf4j
+public class Impact implements IConstructorCommand {
+	public static final IStandardCommand COMMAND_FACTORY = IStandardCommand.of(invocation -> {
+		final List<? extends CommandArgument<?>> arguments = invocation.getArgumentsAsArguments();
+		final List<String> strings = arguments.subList(1, arguments.size()).stream().map(CommandArgument::getString).toList();
+		return new Impact(new Context<BulldozerProject>(BulldozerProject::new, arguments.get(0).getPath()), parseRanges(strings), parseRange(strings));
+	});
+
+	/** The name used for the repository at the root of the workspace, whose projects have an empty relative path. */
+	public static final String REPOSITORY_ROOT = ".";
+
+	public static void main(String[] args) throws Throwable {
+		IStandardCommand.main(args, COMMAND_FACTORY);
+	}
+
+	/**
+	 * Check that a range is one we can diff. Git's <code>from...to</code>, which compares <code>to</code> with the merge base, is rejected rather than being
+	 * misread as <code>from..to</code> with a leading dot on <code>to</code>.
+	 *
+	 * @param range The range.
+	 * @return The range.
+	 */
+	protected static String checkRange(String range) {
+		if (range.contains("...")) throw new IllegalArgumentException(String.format("The range %1$s compares against the merge base, which is not supported, please use from..to instead!", range));
+		return range;
+	}
+
+	/**
+	 * Find the project which owns a file.
+	 *
+	 * @param file The normalized absolute path of the file.
+	 * @param directories The normalized absolute directory of each project, and its name.
+	 * @return The name of the project with the longest directory containing the file, or <code>null</code> if the file isn't in any project.
+	 */
+	protected static String owner(Path file, Map<Path, String> directories) {
+		return directories.entrySet().stream().filter(entry -> file.startsWith(entry.getKey())).max((a, b) -> Integer.compare(a.getKey().getNameCount(), b.getKey().getNameCount())).map(Map.Entry::getValue).orElse(null);
+	}
+
+	/**
+	 * @param arguments The ranges from the command line.
+	 * @return The range for repositories without their own, or <code>null</code> if there isn't one.
+	 */
+	protected static String parseRange(List<String> arguments) {
+		final List<String> retVal = arguments.stream().filter(argument -> argument.indexOf('=') < 0).toList();
+		if (retVal.size() > 1) throw new IllegalArgumentException(String.format("Only one range may apply to all repositories, but found %1$s!", retVal.stream().collect(HCollector.joiningHuman())));
+		return retVal.isEmpty() ? null : checkRange(retVal.get(0));
+	}
+
+	/**
+	 * @param arguments The ranges from the command line.
+	 * @return The range for each repository which was given its own.
+	 */
+	protected static Map<String, String> parseRanges(List<String> arguments) {
+		final Map<String, String> retVal = new LinkedHashMap<>();
+		for (String argument : arguments) {
+			final int index = argument.indexOf('=');
+			if (index < 0) continue;
+			final String repository = argument.substring(0, index), range = argument.substring(index + 1);
+			if (range.isEmpty()) throw new IllegalArgumentException(String.format("The range for %1$s is empty!", repository));
+			if (retVal.put(repository, checkRange(range)) != null) throw new IllegalArgumentException(String.format("Repository %1$s has more than one range!", repository));
+		}
+		return retVal;
+	}
+
+	/**
+	 * @param relative The path of a project relative to the workspace root.
+	 * @return The name of the repository containing the project, which is its first directory, or {@link #REPOSITORY_ROOT} for the workspace root.
+	 */
+	protected static String repository(Path relative) {
+		final Path normalized = relative.normalize();
+		if (normalized.toString().isEmpty()) return REPOSITORY_ROOT;
+		return normalized.getName(0).toString();
+	}
+
+	protected final Context<BulldozerProject> context;
+
+	/** The git range for each repository, by the name of its directory in the workspace, or {@link #REPOSITORY_ROOT} for the workspace itself. */
+	protected final Map<String, String> ranges;
+
+	/** The git range for repositories not in {@link #ranges}, or <code>null</code> to use their uncommitted changes. */
+	protected final String range;
+
+	/** A file to write the affected projects to, one per line in build order, for scripts to consume. */
+	protected final Path output = new PropertyStringInput("bulldozer.impact.output").map(Paths::get).fallback(NullableOptional.of(null)).get();
+
+	/**
+	 * Find the files which have changed in a repository.
+	 *
+	 * @param git The repository.
+	 * @param range The git range, or <code>null</code> for the uncommitted changes.
+	 * @return The paths of the changed files, relative to the root of the repository. Renamed files are reported under both names.
+	 * @throws IOException If the repository could not be read.
+	 * @throws GitAPIException If the diff failed.
+	 */
+	protected Set<String> diff(Git git, String range) throws IOException, GitAPIException {
+		final Set<String> retVal = new TreeSet<>();
+		if (range == null) {
+			final Status status = git.status().call();
+			retVal.addAll(status.getUncommittedChanges());
+			retVal.addAll(status.getUntracked());
+			return retVal;
+		}
+
+		final Repository repository = git.getRepository();
+		final int index = checkRange(range).indexOf("..");
+		final String from = (index < 0) ? range : range.substring(0, index);
+		try (final ObjectReader reader = repository.newObjectReader()) {
+			final List<DiffEntry> entries;
+			if (index < 0) entries = git.diff().setOldTree(tree(repository, reader, from)).call();
+			else entries = git.diff().setOldTree(tree(repository, reader, from)).setNewTree(tree(repository, reader, range.substring(index + 2))).call();
+			for (DiffEntry entry : entries) {
+				if (!DiffEntry.DEV_NULL.equals(entry.getOldPath())) retVal.add(entry.getOldPath());
+				if (!DiffEntry.DEV_NULL.equals(entry.getNewPath())) retVal.add(entry.getNewPath());
+			}
+		}
+		if (index < 0) retVal.addAll(git.status().call().getUntracked());
+		return retVal;
+	}
+
+	@Override
+	public IExit invoke() throws Throwable {
+		HLog.getLogControl().setLogLevel(Level.INFO);
+		try (ICloseable closeProjects = () -> HIO.closeAll(getContext().getProjects().values())) {
+			getContext().preload();
+
+			// Group the projects by repository, so we only diff each one once
+			final Map<String, List<BulldozerProject>> repositories = new LinkedHashMap<>();
+			for (BulldozerProject project : getContext().getProjects().values()) {
+				repositories.computeIfAbsent(repository(project.getProject().getRelative()), k -> new ArrayList<>()).add(project);
+			}
+			{ // Report a nice clean error if any of the repositories are unknown
+				final Set<String> unknown = HCollection.difference(getRanges().keySet(), repositories.keySet());
+				if (!unknown.isEmpty()) throw new IllegalArgumentException(String.format("One or more repositories (%1$s) are unknown!", unknown.stream().collect(HCollector.joiningHuman())));
+			}
+
+			final Set<String> changed = ConcurrentHashMap.newKeySet();
+			getContext().parallel(repositories.entrySet(), entry -> {
+				final String name = entry.getKey();
+				final String range = getRanges().getOrDefault(name, getRange());
+				final List<BulldozerProject> projects = entry.getValue();
+				final Git git = projects.get(0).getGit();
+				final Set<String> files;
+				try {
+					files = diff(git, range);
+				} catch (IOException exception) {
+					throw new RuntimeIOException(String.format("Failed to diff %1$s in %2$s!", range == null ? "uncommitted changes" : range, name), exception);
+				} catch (GitAPIException exception) {
+					throw new RuntimeException(String.format("Failed to diff %1$s in %2$s!", range == null ? "uncommitted changes" : range, name), exception);
+				}
+
+				// Map each file to the project with the longest directory containing it
+				final Path workTree = git.getRepository().getWorkTree().toPath().toAbsolutePath().normalize();
+				final Map<Path, String> directories = new LinkedHashMap<>();
+				for (BulldozerProject project : projects) {
+					directories.put(project.getDirectory().toAbsolutePath().normalize(), project.getName());
+				}
+				for (String file : files) {
+					final String owner = owner(workTree.resolve(file).normalize(), directories);
+					if (owner != null) changed.add(owner);
+					else {
+						log.info("{} in {} isn't in any project, so it affects all of them", file, name);
+						projects.stream().map(BulldozerProject::getName).forEach(changed::add);
+					}
+				}
+			});
+
+			final Set<String> affected = HCollection.intersection(getContext().getGraph().getAffected(changed), getContext().getNameToProject().keySet());
+			final List<String> order = HGraph.toposort(affected, name -> HCollection.intersection(getContext().getGraph().getUpstreams(name), affected), false);
+
+			log.info("Changed: {}", new TreeSet<>(changed));
+			log.info("Rebuild and test, in order:");
+			for (String name : order) {
+				log.info("\t{}{}", name, changed.contains(name) ? "" : " (downstream)");
+			}
+			if (getOutput() != null) {
+				try {
+					Files.write(getOutput(), order, StandardCharsets.UTF_8);
+				} catch (IOException exception) {
+					throw new RuntimeIOException(String.format("Failed to write the affected projects to %1$s!", getOutput()), exception);
+				}
+			}
+		}
+		return IStandardCommand.SUCCESS;
+	}
+
+	/**
+	 * Get a tree iterator for a revision.
+	 *
+	 * @param repository The repository.
+	 * @param reader The object reader to use.
+	 * @param revision The revision, for example a commit, branch or tag.
+	 * @return An iterator over the tree of the revision.
+	 * @throws IOException If the revision could not be resolved or read.
+	 */
+	protected AbstractTreeIterator tree(Repository repository, ObjectReader reader, String revision) throws IOException {
+		final ObjectId id = repository.resolve(revision + "^{tree}");
+		if (id == null) throw new IllegalArgumentException(String.format("Unknown revision %1$s in %2$s!", revision, repository.getWorkTree()));
+		final CanonicalTreeParser retVal = new CanonicalTreeParser();
+		retVal.reset(reader, id);
+		return retVal;
+	}
+}
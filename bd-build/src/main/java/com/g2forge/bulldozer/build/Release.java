@@ -2,51 +2,75 @@ package com.g2forge.bulldozer.build;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.jgit.api.AddCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
-import org.eclipse.jgit.api.errors.CheckoutConflictException;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.api.errors.InvalidRefNameException;
-import org.eclipse.jgit.api.errors.RefAlreadyExistsException;
-import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.semver.Version;
 import org.semver.Version.Element;
 import org.slf4j.event.Level;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.g2forge.alexandria.adt.graph.v1.HGraph;
 import com.g2forge.alexandria.command.command.IConstructorCommand;
 import com.g2forge.alexandria.command.command.IStandardCommand;
 import com.g2forge.alexandria.command.exit.IExit;
 import com.g2forge.alexandria.command.invocation.CommandArgument;
 import com.g2forge.alexandria.java.close.ICloseable;
-import com.g2forge.alexandria.java.core.error.HError;
 import com.g2forge.alexandria.java.core.helpers.HCollection;
 import com.g2forge.alexandria.java.core.helpers.HCollector;
 import com.g2forge.alexandria.java.fluent.optional.NullableOptional;
+import com.g2forge.alexandria.java.function.IFunction1;
 import com.g2forge.alexandria.java.io.HIO;
 import com.g2forge.alexandria.java.io.RuntimeIOException;
 import com.g2forge.alexandria.java.io.file.HFile;
+import com.g2forge.alexandria.java.project.HProject;
 import com.g2forge.alexandria.log.HLog;
 import com.g2forge.alexandria.wizard.PropertyStringInput;
 import com.g2forge.bulldozer.build.maven.IMaven;
+import com.g2forge.bulldozer.build.maven.POMVersionRewriter;
+import com.g2forge.bulldozer.build.maven.Reactor;
+import com.g2forge.bulldozer.build.model.BulldozerGraph;
+import com.g2forge.bulldozer.build.model.BulldozerHistory;
+import com.g2forge.bulldozer.build.model.BulldozerJournal;
 import com.g2forge.bulldozer.build.model.BulldozerProject;
 import com.g2forge.bulldozer.build.model.Context;
+import com.g2forge.bulldozer.build.model.DAGExecutor;
 import com.g2forge.bulldozer.build.model.maven.MavenProject;
 import com.g2forge.gearbox.git.HGit;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -59,6 +83,7 @@ public class Release implements IConstructorCommand {
 	public enum Phase {
 		Initial,
 		Verified,
+		Speculated,
 		Prepared,
 		InstalledRelease,
 		UpdatedDownstreams,
@@ -68,22 +93,120 @@ public class Release implements IConstructorCommand {
 	}
 
 	public static class ReleaseProject extends BulldozerProject {
+		/**
+		 * Write a JSON file atomically, by writing a temporary file and moving it into place, so that a failure never leaves a partial file.
+		 * 
+		 * @param mapper The object mapper to write the value with.
+		 * @param path The file to write.
+		 * @param value The value to write.
+		 * @throws IOException If the file could not be written.
+		 */
+		protected static void writeAtomically(ObjectMapper mapper, Path path, Object value) throws IOException {
+			final Path temporary = path.resolveSibling(path.getFileName().toString() + ".tmp");
+			mapper.writeValue(temporary.toFile(), value);
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
 		@Getter(lazy = true)
 		private final ReleaseProperties releaseProperties = computeReleaseProperties();
 
+		/** The state of this project, cached since it's only ever changed through {@link #updateState(State)}. */
+		protected volatile State state;
+
 		public ReleaseProject(Context<ReleaseProject> context, MavenProject project) {
 			super(context, project);
 		}
 
-		public void checkoutTag(String tag) throws RefAlreadyExistsException, RefNotFoundException, InvalidRefNameException, CheckoutConflictException, GitAPIException, IOException {
-			final String previous = getGit().getRepository().getBranch();
-			getGit().checkout().setCreateBranch(true).setName(BRANCH_DUMMY).setStartPoint(Constants.R_TAGS + tag).call();
+		/**
+		 * Releases change the versions in the POMs as they go, so the version and dependencies loaded at the start are stale by the time the release and
+		 * development versions are installed.
+		 */
+		@Override
+		public boolean isCacheable() {
+			return false;
+		}
+
+		/**
+		 * Check out a tag on a temporary branch, which is removed when this project is closed. A temporary branch left behind by a run which crashed is
+		 * removed first, so that this is safe to repeat when a release is resumed.
+		 * 
+		 * @param tag The tag to check out.
+		 * @param branch The branch to switch back to when this project is closed.
+		 * @throws GitAPIException If the tag could not be checked out.
+		 * @throws IOException If the repository could not be read.
+		 */
+		public void checkoutTag(String tag, String branch) throws GitAPIException, IOException {
+			final Git git = getGit();
+			if (git.getRepository().findRef(Constants.R_HEADS + BRANCH_DUMMY) != null) {
+				if (BRANCH_DUMMY.equals(git.getRepository().getBranch())) git.checkout().setName(branch).call();
+				git.branchDelete().setBranchNames(BRANCH_DUMMY).setForce(true).call();
+			}
+			git.checkout().setCreateBranch(true).setName(BRANCH_DUMMY).setStartPoint(Constants.R_TAGS + tag).call();
 			this.getCloseables().add(() -> {
-				getGit().checkout().setName(previous).call();
-				getGit().branchDelete().setBranchNames(BRANCH_DUMMY).call();
+				git.checkout().setName(branch).call();
+				git.branchDelete().setBranchNames(BRANCH_DUMMY).setForce(true).call();
 			});
 		}
 
+		/**
+		 * Write the files of a tag to a scratch directory, without touching the working tree. The whole repository is exported, so that relative parent
+		 * POMs still resolve.
+		 * 
+		 * @param tag The tag to export.
+		 * @param target The directory to export to, which will be replaced.
+		 * @return The directory of this project within the export.
+		 * @throws IOException If the tag could not be read, or the files could not be written.
+		 */
+		public Path exportTag(String tag, Path target) throws IOException {
+			return export(Constants.R_TAGS + tag, target);
+		}
+
+		/**
+		 * Write the files of a revision to a scratch directory, without touching the working tree. See {@link #exportTag(String, Path)}.
+		 * 
+		 * @param revision The revision to export.
+		 * @param target The directory to export to, which will be replaced.
+		 * @return The directory of this project within the export.
+		 * @throws IOException If the revision could not be read, or the files could not be written.
+		 */
+		public Path export(String revision, Path target) throws IOException {
+			final Repository repository = getGit().getRepository();
+			final ObjectId commit = repository.resolve(revision + "^{commit}");
+			if (commit == null) throw new IllegalArgumentException(String.format("Revision %1$s does not exist in %2$s!", revision, getName()));
+
+			HFile.delete(target, true);
+			try (final RevWalk revWalk = new RevWalk(repository); final TreeWalk treeWalk = new TreeWalk(repository)) {
+				treeWalk.addTree(revWalk.parseCommit(commit).getTree());
+				treeWalk.setRecursive(true);
+				while (treeWalk.next()) {
+					final Path path = target.resolve(treeWalk.getPathString());
+					Files.createDirectories(path.getParent());
+					final FileMode mode = treeWalk.getFileMode(0);
+					final ObjectLoader loader = repository.open(treeWalk.getObjectId(0));
+					if (FileMode.SYMLINK.equals(mode)) Files.createSymbolicLink(path, Paths.get(new String(loader.getBytes(), StandardCharsets.UTF_8)));
+					else if (FileMode.GITLINK.equals(mode)) Files.createDirectories(path);
+					else {
+						try (final OutputStream stream = Files.newOutputStream(path)) {
+							loader.copyTo(stream);
+						}
+						if (FileMode.EXECUTABLE_FILE.equals(mode)) path.toFile().setExecutable(true);
+					}
+				}
+			}
+			return target.resolve(repository.getWorkTree().toPath().toAbsolutePath().normalize().relativize(getDirectory().toAbsolutePath().normalize()));
+		}
+
+		/**
+		 * Compute a hash of the sources of this project as committed at <code>HEAD</code>. POMs and release plugin files are excluded, since the release
+		 * process changes their versions without changing what's built.
+		 * 
+		 * @return A hash of the committed sources.
+		 * @throws IOException If the git repository could not be read.
+		 */
+		public String computeSourceHash() throws IOException {
+			return computeSourceHash(filename -> !(filename.equals(HProject.POM) || filename.startsWith(HProject.POM + ".") || filename.equals(IMaven.RELEASE_PROPERTIES)), false);
+		}
+
 		protected ReleaseProperties computeReleaseProperties() {
 			final Path file = getDirectory().resolve(IMaven.RELEASE_PROPERTIES);
 			try (final InputStream stream = Files.newInputStream(file)) {
@@ -103,14 +226,24 @@ public class Release implements IConstructorCommand {
 		}
 
 		public Phase getPhase() {
+			return getState().getPhase();
+		}
+
+		public State getState() {
+			final State cached = state;
+			if (cached != null) return cached;
+
 			final Path path = getDirectory().resolve(State.BULLDOZER_STATE);
+			final State retVal;
 			if (Files.exists(path)) {
 				try {
-					return getContext().getObjectMapper().readValue(path.toFile(), State.class).getPhase();
+					retVal = getContext().getObjectMapper().readValue(path.toFile(), State.class);
 				} catch (IOException e) {
 					throw new RuntimeException(e);
 				}
-			} else return Phase.Initial;
+			} else retVal = State.builder().phase(Phase.Initial).build();
+			state = retVal;
+			return retVal;
 		}
 
 		public ReleaseProperties predictReleaseProperties() {
@@ -124,13 +257,37 @@ public class Release implements IConstructorCommand {
 		}
 
 		public Phase updatePhase(Phase phase) {
+			updateState(getState().toBuilder().phase(phase).build());
+			return phase;
+		}
+
+		public void updateState(State state) {
 			final Path path = getDirectory().resolve(State.BULLDOZER_STATE);
 			try {
-				getContext().getObjectMapper().writeValue(path.toFile(), new State(phase));
+				writeAtomically(getContext().getObjectMapper(), path, state);
 			} catch (IOException exception) {
 				throw new RuntimeIOException(String.format("Failed to update the phase %1$s", getName()), exception);
 			}
-			return phase;
+			this.state = state;
+
+			// Update the summary of all the projects, so that the progress of the release can be read at once
+			// The states are gathered outside the lock, and a snapshot is only written if no later one has been, since a later one includes this state
+			final long sequence = SUMMARY_SEQUENCE.incrementAndGet();
+			final Map<String, State> states = new TreeMap<>();
+			for (BulldozerProject project : getContext().getProjects().values()) {
+				final State projectState = ((ReleaseProject) project).getState();
+				if (!Phase.Initial.equals(projectState.getPhase())) states.put(project.getName(), projectState);
+			}
+			final Path summary = getContext().getRoot().resolve(State.BULLDOZER_RELEASE_STATE);
+			synchronized (SUMMARY_LOCK) {
+				if (sequence < summaryWritten) return;
+				try {
+					writeAtomically(getContext().getObjectMapper(), summary, states);
+				} catch (IOException exception) {
+					throw new RuntimeIOException(String.format("Failed to update the release state summary %1$s", summary), exception);
+				}
+				summaryWritten = sequence;
+			}
 		}
 	}
 
@@ -148,36 +305,181 @@ public class Release implements IConstructorCommand {
 	}
 
 	@Data
-	@Builder
+	@Builder(toBuilder = true)
 	@AllArgsConstructor
 	public static class State {
 		public static final String BULLDOZER_STATE = "bulldozer-state.json";
 
+		/** The file, at the root of the workspace, which holds the state of every project that's part way through a release. */
+		public static final String BULLDOZER_RELEASE_STATE = "bulldozer-release-state.json";
+
 		protected final Phase phase;
+
+		/** The release version, recorded when the project is prepared so that downstreams can be updated to it later. */
+		protected final String release;
+
+		/** The next development version, recorded when the project is prepared. */
+		protected final String development;
+
+		/** The hash of the sources which passed verification, see {@link ReleaseProject#computeSourceHash()}. */
+		protected final String verified;
+
+		/** The hash of the sources and versions which passed speculative verification, see {@link Release#computeSpeculationHash}. */
+		protected final String speculated;
 	}
 
-	protected static final List<String> PROFILES_TO_UPDATE = Stream.of(MavenProject.Protection.values()).filter(p -> !MavenProject.Protection.Public.equals(p)).map(p -> p.name().toLowerCase()).collect(Collectors.toList());
+	/**
+	 * One phase of the release of one project, as scheduled by the {@link DAGExecutor}.
+	 */
+	@Data
+	@AllArgsConstructor
+	protected static class Step {
+		protected final String name;
+
+		protected final Phase phase;
+	}
+
+	protected static final List<String> PROFILES_TO_UPDATE = MavenProject.PROFILES_PROTECTED;
+
+	/** Guards writing the release state summary, see {@link ReleaseProject#updateState(State)}. */
+	private static final Object SUMMARY_LOCK = new Object();
+
+	/** Numbers the release state summaries in the order the project states were updated. */
+	private static final AtomicLong SUMMARY_SEQUENCE = new AtomicLong();
+
+	/** The number of the last release state summary written, guarded by {@link #SUMMARY_LOCK}. */
+	private static long summaryWritten = 0;
+
+	/** The directory, under the workspace root, which holds the staging local repository for each release. */
+	public static final String BULLDOZER_STAGING = "bulldozer-staging";
+
+	/** The option which prints the plan for a release instead of running it. */
+	public static final String OPTION_PLAN = "--plan";
+
+	/** The directory, under the workspace root, to which release tags are exported. */
+	public static final String BULLDOZER_SCRATCH = "bulldozer-scratch";
 
 	public static final IStandardCommand COMMAND_FACTORY = IStandardCommand.of(invocation -> {
 		final List<? extends CommandArgument<?>> arguments = invocation.getArgumentsAsArguments();
 		final Path root = arguments.get(0).getPath();
 		final String issue = arguments.get(1).getString();
-		final List<String> targets = arguments.subList(2, arguments.size()).stream().map(CommandArgument::getString).toList();
-		return new Release(new Context<ReleaseProject>(ReleaseProject::new, root), issue, targets);
+		final List<String> remainder = arguments.subList(2, arguments.size()).stream().map(CommandArgument::getString).toList();
+		final List<String> targets = remainder.stream().filter(argument -> !OPTION_PLAN.equals(argument)).toList();
+		return new Release(new Context<ReleaseProject>(ReleaseProject::new, root), issue, targets, remainder.contains(OPTION_PLAN));
 	});
 
 	public static void main(String[] args) throws Throwable {
 		IStandardCommand.main(args, COMMAND_FACTORY);
 	}
 
+	/**
+	 * Schedule the phases of the release of each project, so that each phase starts as soon as the phases it needs are done.
+	 * 
+	 * @param order The projects being released, in release order.
+	 * @param graph The dependencies between the projects.
+	 * @param speculative <code>true</code> if the release is {@link #isSpeculative() speculative}.
+	 * @param parallelism The number of phases to run at once.
+	 * @return An executor with a node for each phase of each project.
+	 */
+	protected static DAGExecutor<Step> schedule(List<String> order, BulldozerGraph graph, boolean speculative, int parallelism) {
+		final DAGExecutor<Step> retVal = new DAGExecutor<>(parallelism);
+		for (String name : order) {
+			final Set<String> upstreams = HCollection.intersection(graph.getUpstreams(name), order);
+			final Set<String> downstreams = HCollection.intersection(graph.getDownstreams(name), order);
+
+			retVal.node(new Step(name, Phase.Verified), HCollection.emptyList());
+			if (speculative) {
+				retVal.node(new Step(name, Phase.Speculated), HCollection.concatenate(HCollection.asList(new Step(name, Phase.Verified)), steps(upstreams, Phase.Speculated)));
+				retVal.node(new Step(name, Phase.Prepared), HCollection.asList(new Step(name, Phase.Speculated)));
+			}
+			retVal.node(new Step(name, Phase.Prepared), HCollection.concatenate(HCollection.asList(new Step(name, Phase.Verified)), steps(upstreams, Phase.UpdatedDownstreams)));
+			retVal.node(new Step(name, Phase.InstalledRelease), HCollection.asList(new Step(name, Phase.Prepared)));
+			retVal.node(new Step(name, Phase.UpdatedDownstreams), HCollection.asList(new Step(name, Phase.InstalledRelease)));
+			retVal.node(new Step(name, Phase.Released), HCollection.concatenate(HCollection.asList(new Step(name, Phase.UpdatedDownstreams)), steps(upstreams, Phase.Released)));
+			// Downstreams must be prepared and installed against our release before we install the next development version, but needn't wait to be deployed
+			retVal.node(new Step(name, Phase.InstalledDevelopment), HCollection.concatenate(HCollection.asList(new Step(name, Phase.Released)), steps(upstreams, Phase.InstalledDevelopment), steps(downstreams, Phase.UpdatedDownstreams)));
+		}
+		return retVal;
+	}
+
 	protected final Context<ReleaseProject> context;
 
 	protected final String issue;
 
 	protected final List<String> targets;
 
+	/** If true, only print the plan for the release, see {@link #OPTION_PLAN}. */
+	protected final boolean plan;
+
 	protected final boolean allowDirty = new PropertyStringInput("bulldozer.allowdirty").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
 
+	/**
+	 * The maximum number of release phases to run concurrently, which defaults to the number of available processors.
+	 */
+	protected final int parallelism = new PropertyStringInput("bulldozer.release.parallelism").map(Integer::valueOf).fallback(NullableOptional.of(Runtime.getRuntime().availableProcessors())).get();
+
+	/**
+	 * If true, downstream versions are updated by editing their POMs directly with {@link POMVersionRewriter}, instead of running the versions plugin.
+	 */
+	protected final boolean rewriteVersions = new PropertyStringInput("bulldozer.versions.rewrite").map(Boolean::valueOf).fallback(NullableOptional.of(true)).get();
+
+	/**
+	 * If true, the temporary release artifacts are installed to a staging local repository for this release, which is layered over the real local repository
+	 * and dropped in one go when the release is done. This requires maven 3.9 or later, for <code>maven.repo.local.tail</code>.
+	 */
+	protected final boolean staging = new PropertyStringInput("bulldozer.release.staging").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	@Getter(lazy = true)
+	private final Path localRepository = Paths.get(getContext().getMaven().evaluate(getContext().getRoot(), "settings.localRepository"));
+
+	/**
+	 * If true, each project is built and tested once per release instead of in every phase. The release is installed by <code>release:prepare</code>, and
+	 * later builds skip the tests as long as the sources are the same ones that were verified.
+	 */
+	protected final boolean singleBuild = new PropertyStringInput("bulldozer.release.single").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * If true, release tags are exported to a scratch directory to be installed, instead of being checked out in the working tree of each project. This
+	 * leaves the working trees on the release branch, and allows several releases to be installed concurrently.
+	 */
+	protected final boolean exportTags = new PropertyStringInput("bulldozer.release.export").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * If true, each project is speculatively built and tested against the predicted release versions of its upstreams, as soon as those upstreams have been
+	 * speculatively built. When the actual release versions match the prediction the tests are skipped during <code>release:prepare</code>, so that long
+	 * test runs overlap instead of being serialized along the dependency chain. This requires maven 3.9 or later, for <code>maven.repo.local.tail</code>.
+	 */
+	protected final boolean speculative = new PropertyStringInput("bulldozer.release.speculative").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * If true, the downstreams which aren't being released are reinstalled with a single multi-threaded maven build over a generated aggregator POM, instead
+	 * of one build per project.
+	 */
+	protected final boolean reinstallReactor = new PropertyStringInput("bulldozer.reinstall.reactor").map(Boolean::valueOf).fallback(NullableOptional.of(true)).get();
+
+	/**
+	 * The maven thread count to use when reinstalling downstreams, see {@link #isReinstallReactor()}. The default is one thread per core.
+	 */
+	protected final String reinstallThreads = new PropertyStringInput("bulldozer.reinstall.threads").fallback(NullableOptional.of("1C")).get();
+
+	/**
+	 * The journal of the steps completed so far, so that a failed release can be resumed without repeating the ones which completed.
+	 */
+	@Getter(lazy = true)
+	private final BulldozerJournal journal = BulldozerJournal.open(getContext().getRoot().resolve(BulldozerJournal.BULLDOZER_JOURNAL).resolve(getIssue() + ".bin"));
+
+	/**
+	 * The names of all the projects being released.
+	 */
+	@Getter(AccessLevel.NONE)
+	protected final Set<String> releasing = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Locks for the working trees of the projects, see {@link #getLock(BulldozerProject)}.
+	 */
+	@Getter(AccessLevel.NONE)
+	protected final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
 	protected void commitUpstreamReversion(final Git git) throws IOException, GitAPIException {
 		final Status status = git.status().call();
 		if (!status.isClean() && !status.getUncommittedChanges().isEmpty()) {
@@ -192,6 +494,71 @@ public class Release implements IConstructorCommand {
 		return getIssue() + "-Release";
 	}
 
+	/**
+	 * @return The scratch directory for speculative builds, which holds the exported sources and the local repository they're installed to.
+	 */
+	protected Path getSpeculativeDirectory() {
+		return getContext().getRoot().resolve(BULLDOZER_SCRATCH).resolve(getIssue() + "-speculative");
+	}
+
+	/**
+	 * @return The staging local repository for this release.
+	 */
+	protected Path getStagingRepository() {
+		return getContext().getRoot().resolve(BULLDOZER_STAGING).resolve(getIssue());
+	}
+
+	/**
+	 * Get the system properties for maven runs which should see the temporary release installs.
+	 * 
+	 * @param forked <code>true</code> if the properties should also be passed to the build forked by the release plugin.
+	 * @param skipTests <code>true</code> if the tests should be skipped, because these sources have already been verified.
+	 * @return The properties.
+	 */
+	protected Map<String, String> getMavenProperties(boolean forked, boolean skipTests) {
+		final Map<String, String> retVal = new LinkedHashMap<>();
+		if (isStaging()) {
+			retVal.put("maven.repo.local", getStagingRepository().toAbsolutePath().toString());
+			retVal.put("maven.repo.local.tail", getLocalRepository().toAbsolutePath().toString());
+		}
+		if (skipTests) retVal.put("skipTests", "true");
+		if (forked && !retVal.isEmpty()) retVal.put("arguments", retVal.entrySet().stream().map(entry -> "-D" + entry.getKey() + "=\"" + entry.getValue() + "\"").collect(Collectors.joining(" ")));
+		return retVal;
+	}
+
+	/**
+	 * Check whether the committed sources of a project are the ones which were verified, in which case there's no need to test them again. Verification
+	 * builds against whatever versions of the upstreams are installed, so it only stands in for the tests of projects which don't depend on any project
+	 * being released with them. Those are tested against the actual upstream releases, unless a {@link #isSpeculated(ReleaseProject) speculation} did so.
+	 * 
+	 * @param project The project.
+	 * @return <code>true</code> if this is a {@link #isSingleBuild() single build} release, none of the upstreams of the project are being released, and the
+	 *         sources have already been verified.
+	 * @throws IOException If the sources could not be hashed.
+	 */
+	protected boolean isVerified(ReleaseProject project) throws IOException {
+		if (!isSingleBuild()) return false;
+		if (!HCollection.intersection(getContext().getGraph().getUpstreams(project.getName()), releasing).isEmpty()) return false;
+		final String verified = project.getState().getVerified();
+		return (verified != null) && verified.equals(project.computeSourceHash());
+	}
+
+	/**
+	 * Check whether a project passed speculative verification with exactly the sources and versions it's about to be prepared with.
+	 * 
+	 * @param project The project.
+	 * @return <code>true</code> if this is a {@link #isSpeculative() speculative} release, and the speculation was correct.
+	 * @throws IOException If the sources could not be hashed.
+	 */
+	protected boolean isSpeculated(ReleaseProject project) throws IOException {
+		if (!isSpeculative()) return false;
+		final String speculated = project.getState().getSpeculated();
+		if (speculated == null) return false;
+		final boolean retVal = speculated.equals(computeSpeculationHash(project, project.predictReleaseProperties().getRelease(), getUpstreamVersions(project.getName(), State::getRelease)));
+		if (!retVal) log.info("Speculative verification of {} does not match the actual release, it will be verified again", project.getName());
+		return retVal;
+	}
+
 	@Override
 	public IExit invoke() throws Throwable {
 		HLog.getLogControl().setLogLevel(Level.INFO);
@@ -200,197 +567,500 @@ public class Release implements IConstructorCommand {
 		// Load information about all the projects
 		log.info("Loading project information");
 		try (ICloseable closeProjects = () -> HIO.closeAll(getContext().getProjects().values())) {
+			getContext().preload();
+
 			// Print a list of the public projects
 			final List<ReleaseProject> publicProjects = getContext().getProjects().values().stream().filter(project -> MavenProject.Protection.Public.equals(project.getProject().getProtection())).collect(Collectors.toList());
 			log.info("Public projects: {}", publicProjects.stream().map(BulldozerProject::getName).collect(Collectors.joining(", ")));
 
-			// Check for uncommitted changes in any project, and fail
-			if (!allowDirty) getContext().failIfDirty();
-
+			final List<String> problems = new ArrayList<>();
 			{ // Report a nice clean error if any of the target projects are unknown
 				final Set<String> unknownProjects = HCollection.difference(targets, getContext().getNameToProject().keySet());
-				if (!unknownProjects.isEmpty()) throw new IllegalArgumentException(String.format("One or more target projects to release (%1$s) are unknown!", unknownProjects.stream().collect(HCollector.joiningHuman())));
+				if (!unknownProjects.isEmpty()) problems.add(String.format("One or more target projects to release (%1$s) are unknown!", unknownProjects.stream().collect(HCollector.joiningHuman())));
 			}
 
 			// Compute the order in which to release the public projects
 			log.info("Planning release order");
-			final List<String> order = HGraph.toposort(targets, p -> getContext().getNameToProject().get(p).getDependencies().getTransitive().keySet(), false);
+			final List<String> order = HGraph.toposort(HCollection.intersection(targets, getContext().getNameToProject().keySet()), getContext().getGraph()::getUpstreams, false);
 			log.info("Release order: {}", order);
+			releasing.addAll(order);
 
-			if (!allowDirty) { // Make sure none of the tags already exist
-				final List<ReleaseProject> tagged = order.stream().map(getContext().getProjects()::get).filter(project -> {
+			// Check everything that could stop the release part way through, before anything is changed
+			log.info("Checking {} projects", getContext().getProjects().size());
+			problems.addAll(preflight());
+			final String message = problems.isEmpty() ? null : String.format("The release cannot proceed:%n\t%1$s", problems.stream().collect(Collectors.joining(String.format("%n\t"))));
+			if ((message != null) && !isPlan()) throw new IllegalStateException(message);
+
+			// Run the release phases of all the projects, each one starting as soon as the projects it depends on allow
+			log.info("Releasing with {} workers", getParallelism());
+			final DAGExecutor<Step> executor = schedule(order, getContext().getGraph(), isSpeculative(), getParallelism());
+			{ // Estimate how long each step will take from past releases, so that the longest chains of steps can be started first
+				final Map<Phase, List<Long>> known = new LinkedHashMap<>();
+				final Map<Step, Long> estimates = new LinkedHashMap<>();
+				for (Step step : executor.getDependencies().keySet()) {
+					final BulldozerHistory history = getContext().getIndex().get(BulldozerHistory.class, step.getName());
+					final Long estimate = history == null ? null : history.estimate(step.getPhase().name());
+					if (estimate != null) known.computeIfAbsent(step.getPhase(), p -> new ArrayList<>()).add(estimate);
+					estimates.put(step, estimate);
+				}
+				for (Map.Entry<Step, Long> entry : estimates.entrySet()) {
+					final Step step = entry.getKey();
+					final long estimate;
+					// Steps which are already done are free, and steps which have never been run are assumed to take as long as they do for other projects
+					if (step.getPhase().compareTo(getContext().getProjects().get(step.getName()).getPhase()) <= 0) estimate = 0;
+					else if (entry.getValue() != null) estimate = entry.getValue();
+					else estimate = Math.round(known.getOrDefault(step.getPhase(), HCollection.emptyList()).stream().mapToLong(Long::longValue).average().orElse(0));
+					executor.cost(step, estimate);
+				}
+			}
+			if (isPlan()) {
+				log.info("Release plan:");
+				int invocations = 0;
+				for (String name : order) {
+					final ReleaseProject project = getContext().getProjects().get(name);
 					final ReleaseProperties releaseProperties = project.predictReleaseProperties();
-					try {
-						return project.getGit().getRepository().findRef(Constants.R_TAGS + releaseProperties.getTag()) != null;
-					} catch (IOException e) {
-						throw new RuntimeException(String.format("Failure while attempting to check whether %1$s is already tagged!", project.getName()), e);
-					}
-				}).collect(Collectors.toList());
-				if (!tagged.isEmpty()) throw new IllegalStateException(String.format("One or more projects were already tagged (%1$s), please remove those tags and try again!", tagged.stream().map(p -> p.getName() + "@" + p.getVersion()).collect(Collectors.joining(", "))));
+					final Set<String> downstreams = getContext().getGraph().getDownstreams(name);
+					final int count = countMavenInvocations(project);
+					invocations += count;
+					log.info("\t{} {} -> {} then {} (phase {}, {} downstreams of which {} are not being released, {} maven runs)", name, project.getVersion(), releaseProperties.getRelease(), releaseProperties.getDevelopment(), project.getPhase(), downstreams.size(), HCollection.difference(downstreams, order).size(), count);
+				}
+				final Set<String> reinstall = new LinkedHashSet<>();
+				for (String name : order) {
+					reinstall.addAll(getContext().getGraph().getDownstreams(name));
+				}
+				reinstall.removeAll(order);
+				invocations += reinstall.size() * (isRewriteVersions() ? 1 : 2);
+				log.info("Reinstall: {}", reinstall);
+				log.info("Maven runs: {}", invocations);
+
+				final DAGExecutor.Plan<Step> plan = executor.plan();
+				log.info("Critical path: {}", plan.getCriticalPath().stream().map(step -> step.getName() + " " + step.getPhase()).collect(Collectors.joining(" -> ")));
+				log.info("Predicted time with {} workers: {}", getParallelism(), Duration.ofMillis(plan.getMakespan()));
+				// Report the problems after the plan, so that they're not lost in it
+				if (message != null) throw new IllegalStateException(message);
+				return IStandardCommand.SUCCESS;
 			}
+			executor.run(this::time);
 
-			// Verify all the releases
+			// Update all the downstreams which aren't being released to the new development versions, once each
+			final Set<String> unreleasedProjectsToReinstall = new LinkedHashSet<>();
 			for (String name : order) {
-				final ReleaseProject project = getContext().getProjects().get(name);
+				unreleasedProjectsToReinstall.addAll(getContext().getGraph().getDownstreams(name));
+			}
+			unreleasedProjectsToReinstall.removeAll(order);
+			log.info("Updating unreleased downstream projects");
+			for (String name : unreleasedProjectsToReinstall) {
+				final BulldozerProject project = getContext().getNameToProject().get(name);
+				final Map<String, String> versions = getUpstreamVersions(name, State::getDevelopment);
+				getJournal().once(name + ":update-development:" + versions, () -> {
+					switchToBranch(project.getGit());
+					updateVersions(project, versions, true);
+				});
+			}
 
-				Phase phase = project.getPhase();
-				if (Phase.Verified.compareTo(phase) > 0) {
-					log.info("Verifying {} {}", name, project.getVersion());
+			// Commit anything dirty, since those are the things with version updates
+			log.info("Committing downstream projects");
+			for (BulldozerProject project : getContext().getProjects().values()) {
+				log.info("\t{}", project.getName());
+				// Commit anything dirty, since those are the things with version updates
+				getJournal().once(project.getName() + ":commit-development", () -> {
+					switchToBranch(project.getGit());
+					commitUpstreamReversion(project.getGit());
+					project.preserveTemp();
+				});
+			}
 
-					// Prepare the project (stream stdio to the console)
-					getContext().getMaven().verify(project.getDirectory());
-					phase = project.updatePhase(Phase.Verified);
+			// Re-install all the downstream projects that have had updated upstreams
+			log.info("Reinstalling downstream projects");
+			final List<String> unreleasedInstallOrder = HGraph.toposort(unreleasedProjectsToReinstall, getContext().getGraph()::getUpstreams, false);
+			if (isReinstallReactor()) {
+				if (!unreleasedInstallOrder.isEmpty()) getJournal().once("reinstall:" + unreleasedInstallOrder, () -> reinstall(unreleasedInstallOrder));
+			} else {
+				for (String name : unreleasedInstallOrder) {
+					log.info("\t{}", name);
+					final BulldozerProject project = getContext().getNameToProject().get(name);
+					// Maven install (stream stdio to the console) the downstream, since it was updated
+					getJournal().once(name + ":reinstall", () -> getContext().getMaven().install(project.getDirectory(), false, HCollection.emptyList()));
 				}
-				log.info("Verified {} {}", name, project.getVersion());
 			}
 
-			// Prepare all the releases
-			final Set<String> unreleasedProjectsToReinstall = new LinkedHashSet<>();
+			// Cleanup
 			for (String name : order) {
 				final ReleaseProject project = getContext().getProjects().get(name);
-				final Git git = project.getGit();
-				final ReleaseProperties releaseProperties = project.predictReleaseProperties();
-
 				Phase phase = project.getPhase();
+
+				if (Phase.DeletedRelease.compareTo(phase) > 0) {
+					log.info("Cleaning up temporary release install of {}", name);
+					// When staging, the release was only ever installed to the staging repository, which is dropped below
+					if (!isStaging()) {
+						final String releaseVersion = Version.parse(project.getVersion()).toReleaseVersion().toString();
+						// Remove the maven temporary install of the new release version
+						for (Path artifact : project.getArtifactDirectories(releaseVersion)) {
+							HFile.delete(getLocalRepository().resolve(artifact), true);
+						}
+					}
+					phase = project.updatePhase(Phase.DeletedRelease);
+				}
+				log.info("Cleaned up temporary release install of {}", name);
+			}
+			if (isStaging()) {
+				log.info("Dropping staging repository {}", getStagingRepository());
+				HFile.delete(getStagingRepository(), true);
+			}
+			if (isSpeculative()) HFile.delete(getSpeculativeDirectory(), true);
+			// The release is complete, so there's nothing left to resume
+			getJournal().delete();
+		}
+		return IStandardCommand.SUCCESS;
+	}
+
+	/**
+	 * Compute a hash of everything which determines the result of building a project, apart from the POMs: the sources, the release version of the project,
+	 * and the release versions of its upstreams.
+	 * 
+	 * @param project The project.
+	 * @param release The release version of the project.
+	 * @param versions A map from the groups of the upstreams being released to their release versions.
+	 * @return The hash.
+	 * @throws IOException If the sources could not be hashed.
+	 */
+	protected String computeSpeculationHash(ReleaseProject project, String release, Map<String, String> versions) throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(project.computeSourceHash()).append('\n').append(release).append('\n');
+		new TreeMap<>(versions).forEach((group, version) -> builder.append(group).append('=').append(version).append('\n'));
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	/**
+	 * Count the maven runs that are still needed to release a project, not including the reinstall of downstreams which aren't being released.
+	 * 
+	 * @param project The project.
+	 * @return The number of maven runs.
+	 */
+	protected int countMavenInvocations(ReleaseProject project) {
+		final Phase phase = project.getPhase();
+		final boolean upstreams = !HCollection.intersection(getContext().getGraph().getUpstreams(project.getName()), releasing).isEmpty();
+		final int update = (upstreams && !isRewriteVersions()) ? 1 : 0;
+		int retVal = 0;
+		if (Phase.Verified.compareTo(phase) > 0) retVal++;
+		if (isSpeculative() && (Phase.Speculated.compareTo(phase) > 0)) retVal++;
+		if (Phase.Prepared.compareTo(phase) > 0) retVal += 1 + update;
+		if (!isSingleBuild() && (Phase.InstalledRelease.compareTo(phase) > 0)) retVal++;
+		if (Phase.Released.compareTo(phase) > 0) retVal++;
+		if (Phase.InstalledDevelopment.compareTo(phase) > 0) retVal += 1 + update;
+		return retVal;
+	}
+
+	/**
+	 * Install a set of projects with a single multi-threaded maven build, over a generated aggregator POM, and report the log of each project separately.
+	 * 
+	 * @param names The names of the projects to install.
+	 * @throws IOException If the aggregator POM could not be written, or the logs could not be split.
+	 */
+	protected void reinstall(Collection<String> names) throws IOException {
+		final Map<String, Path> projects = new LinkedHashMap<>();
+		for (String name : names) {
+			projects.put(name, getContext().getNameToProject().get(name).getDirectory());
+		}
+		final Reactor reactor = new Reactor(getContext().getRoot().resolve(BULLDOZER_SCRATCH).resolve(getIssue()).resolve("reinstall"), projects);
+		final Path directory = reactor.write();
+		final Path output = directory.resolve("reactor.log");
+		log.info("Installing {} with {} threads, see {}", names, getReinstallThreads(), output);
+		try {
+			getContext().getMaven().installReactor(directory, getReinstallThreads(), output.toAbsolutePath().toString(), HCollection.emptyList());
+		} finally {
+			if (Files.exists(output)) {
+				final Map<String, ? extends BulldozerProject> groupToProject = getContext().getGroupToProject();
+				for (Map.Entry<String, Path> entry : reactor.split(output, group -> {
+					final BulldozerProject project = groupToProject.get(group);
+					return project == null ? null : project.getName();
+				}).entrySet()) {
+					log.info("\t{}: {}", entry.getKey(), entry.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the lock for the working tree of a project, which must be held while changing it since projects are released concurrently.
+	 * 
+	 * @param project The project.
+	 * @return The lock for the working tree containing the project.
+	 */
+	protected Object getLock(BulldozerProject project) {
+		return locks.computeIfAbsent(project.getGit().getRepository().getWorkTree().toPath().toAbsolutePath().normalize(), path -> new Object());
+	}
+
+	/**
+	 * Run one phase of the release of one project, and record how long its maven work took for future estimates. Phases which had no work to do, because
+	 * the project or the journal shows they already finished, and speculations which failed, are not recorded since they'd skew the estimates.
+	 * 
+	 * @param step The project and phase.
+	 * @throws Exception If the phase fails.
+	 */
+	protected void time(Step step) throws Exception {
+		final long duration = run(step);
+		if (duration > 0) getContext().getIndex().update(BulldozerHistory.class, step.getName(), history -> (history == null ? new BulldozerHistory() : history).record(step.getPhase().name(), duration));
+	}
+
+	/**
+	 * Run some maven work for a phase, unless the journal shows it already finished, and time it. This should be called while holding the lock for the
+	 * working tree, if any, so that the time spent waiting for it isn't counted.
+	 * 
+	 * @param key The key for the work in the journal.
+	 * @param step The work.
+	 * @return How long the work took in milliseconds, or <code>0</code> if it had already finished.
+	 * @throws Exception If the work fails.
+	 */
+	protected long timed(String key, BulldozerJournal.IStep step) throws Exception {
+		if (getJournal().isDone(key)) return 0;
+		final long start = System.currentTimeMillis();
+		getJournal().once(key, step);
+		return System.currentTimeMillis() - start;
+	}
+
+	/**
+	 * Run one phase of the release of one project, unless the project is already past it.
+	 * 
+	 * @param step The project and phase.
+	 * @return How long the maven work for the phase took in milliseconds, or <code>0</code> if there was none to do.
+	 * @throws Exception If the phase fails.
+	 */
+	protected long run(Step step) throws Exception {
+		long retVal = 0;
+		final String name = step.getName();
+		final ReleaseProject project = getContext().getProjects().get(name);
+		final Phase phase = project.getPhase();
+		switch (step.getPhase()) {
+			case Verified:
+				if (Phase.Verified.compareTo(phase) > 0) {
+					log.info("Verifying {} {}", name, project.getVersion());
+					final String hash;
+					synchronized (getLock(project)) {
+						// Prepare the project (stream stdio to the console)
+						retVal += timed(name + ":verify", () -> getContext().getMaven().verify(project.getDirectory()));
+						hash = project.computeSourceHash();
+					}
+					project.updateState(project.getState().toBuilder().phase(Phase.Verified).verified(hash).build());
+				}
+				log.info("Verified {} {}", name, project.getVersion());
+				break;
+			case Speculated: {
+				final String release = project.predictReleaseProperties().getRelease();
+				if (Phase.Speculated.compareTo(phase) > 0) {
+					// Predict the release versions of our upstreams, which they have already been speculatively installed with
+					final Map<String, String> versions = new LinkedHashMap<>();
+					for (String upstream : getContext().getGraph().getUpstreams(name)) {
+						if (!releasing.contains(upstream)) continue;
+						final ReleaseProject upstreamProject = getContext().getProjects().get(upstream);
+						versions.put(upstreamProject.getGroup(), upstreamProject.predictReleaseProperties().getRelease());
+					}
+
+					log.info("Speculatively verifying {} {}", name, release);
+					final Path scratch = getSpeculativeDirectory().resolve("sources").resolve(name);
+					String speculated = null;
+					try {
+						final Path directory;
+						final String hash;
+						synchronized (getLock(project)) {
+							directory = project.export(Constants.HEAD, scratch);
+							hash = computeSpeculationHash(project, release, versions);
+						}
+						// Build and install the predicted release in isolation, so that our speculative downstreams can use it
+						final Map<String, String> groups = new LinkedHashMap<>(versions);
+						groups.put(project.getGroup(), release);
+						new POMVersionRewriter(groups, release).rewrite(directory);
+						final long start = System.currentTimeMillis();
+						getContext().getMaven().install(directory, false, IMaven.PROFILES_RELEASE, Map.of("maven.repo.local", getSpeculativeDirectory().resolve("repository").toAbsolutePath().toString(), "maven.repo.local.tail", getLocalRepository().toAbsolutePath().toString()));
+						speculated = hash;
+						retVal += System.currentTimeMillis() - start;
+					} catch (Exception exception) {
+						log.warn(String.format("Speculative verification of %1$s failed, it will be verified when it is prepared", name), exception);
+					} finally {
+						HFile.delete(scratch, true);
+					}
+					project.updateState(project.getState().toBuilder().phase(Phase.Speculated).speculated(speculated).build());
+				}
+				log.info("Speculated {} {}", name, release);
+				break;
+			}
+			case Prepared: {
+				final ReleaseProperties releaseProperties = project.predictReleaseProperties();
 				if (Phase.Prepared.compareTo(phase) > 0) {
 					log.info("Preparing {} {}", name, releaseProperties.getRelease());
-					// Create and switch to the release branch if needed
-					switchToBranch(git);
-					// Commit any changes from a past prepare
-					commitUpstreamReversion(git);
-					project.preserveTemp();
+					synchronized (getLock(project)) {
+						final Git git = project.getGit();
+						// Create and switch to the release branch if needed
+						switchToBranch(git);
+						// Update to the releases of all our upstreams at once, and commit along with any changes from a past prepare
+						final Map<String, String> versions = getUpstreamVersions(name, State::getRelease);
+						retVal += timed(name + ":update-release:" + versions, () -> {
+							updateVersions(project, versions, false);
+							commitUpstreamReversion(git);
+							project.preserveTemp();
+						});
 
-					// Prepare the project (stream stdio to the console)
-					getContext().getMaven().releasePrepare(project.getDirectory(), releaseProperties.getTag(), releaseProperties.getRelease(), releaseProperties.getDevelopment(), IMaven.PROFILES_RELEASE);
-					phase = project.updatePhase(Phase.Prepared);
+						// Prepare the project (stream stdio to the console), installing the release at the same time in a single build release
+						final Map<String, String> properties = new LinkedHashMap<>(getMavenProperties(true, isVerified(project) || isSpeculated(project)));
+						if (isSingleBuild()) properties.put("preparationGoals", "clean install");
+						retVal += timed(name + ":prepare", () -> getContext().getMaven().releasePrepare(project.getDirectory(), releaseProperties.getTag(), releaseProperties.getRelease(), releaseProperties.getDevelopment(), IMaven.PROFILES_RELEASE, properties));
+					}
+					// Record the versions, since the release properties are removed when the release is performed
+					final ReleaseProperties prepared = project.getReleaseProperties();
+					project.updateState(project.getState().toBuilder().phase(Phase.Prepared).release(prepared.getRelease()).development(prepared.getDevelopment()).build());
 				}
 				log.info("Prepared {} {}", name, releaseProperties.getRelease());
-
+				break;
+			}
+			case InstalledRelease: {
+				final ReleaseProperties releaseProperties = project.predictReleaseProperties();
 				if (Phase.InstalledRelease.compareTo(phase) > 0) {
 					log.info("Installing release {} {}", name, releaseProperties.getRelease());
-					// Check out the recent tag using jgit
-					project.checkoutTag(project.getReleaseProperties().getTag());
-					// Maven install (stream stdio to the console) the newly created release version
-					getContext().getMaven().install(project.getDirectory(), true, IMaven.PROFILES_RELEASE);
-					phase = project.updatePhase(Phase.InstalledRelease);
-				}
-				log.info("Installed release {} {}", name, releaseProperties.getRelease());
-
-				if (Phase.UpdatedDownstreams.compareTo(phase) > 0) {
-					// Update everyone who consumes this project (including the private consumers!) to the new version (and commit)
-					log.info("Updating downstreams {} {}", name, releaseProperties.getRelease());
-					final List<Throwable> throwables = new ArrayList<>();
-					for (BulldozerProject downstream : getContext().getProjects().values()) {
-						try {
-							// Skip ourselves & projects that don't depend on us
-							if ((downstream == project) || !downstream.getDependencies().getTransitive().keySet().contains(name)) continue;
-							log.info("\tFound downstream {}", downstream.getName());
-							// Record that we're updating this project so it needs to be re-installed at the end
-							unreleasedProjectsToReinstall.add(downstream.getName());
-							// Update all the downstreams to new release versions
-							switchToBranch(downstream.getGit());
-							getContext().getMaven().updateVersions(downstream.getDirectory(), downstream.getParentGroup().equals(project.getGroup()), false, PROFILES_TO_UPDATE, HCollection.asList(project.getGroup() + ":*"));
-						} catch (Throwable throwable) {
-							throwables.add(throwable);
+					// A single build release was installed by the prepare
+					if (isExportTags() && !isSingleBuild()) {
+						// Export the recent tag, and maven install (stream stdio to the console) the newly created release version from there
+						final Path scratch = getContext().getRoot().resolve(BULLDOZER_SCRATCH).resolve(getIssue()).resolve(name);
+						retVal += timed(name + ":install-release", () -> {
+							try {
+								getContext().getMaven().install(project.exportTag(project.getReleaseProperties().getTag(), scratch), true, IMaven.PROFILES_RELEASE, getMavenProperties(false, false));
+							} finally {
+								HFile.delete(scratch, true);
+							}
+						});
+					} else if (!isSingleBuild()) {
+						synchronized (getLock(project)) {
+							retVal += timed(name + ":install-release", () -> {
+								// Check out the recent tag using jgit
+								project.checkoutTag(project.getReleaseProperties().getTag(), getBranch());
+								// Maven install (stream stdio to the console) the newly created release version
+								getContext().getMaven().install(project.getDirectory(), true, IMaven.PROFILES_RELEASE, getMavenProperties(false, false));
+							});
 						}
 					}
-					if (!throwables.isEmpty()) throw HError.withSuppressed(new RuntimeException("Unable to update downstreams!"), throwables);
-
-					phase = project.updatePhase(Phase.UpdatedDownstreams);
+					project.updatePhase(Phase.InstalledRelease);
 				}
+				log.info("Installed release {} {}", name, releaseProperties.getRelease());
+				break;
+			}
+			case UpdatedDownstreams: {
+				// Downstreams which are being released pick up our release when they're prepared, and the rest are updated in one batch at the end
+				final ReleaseProperties releaseProperties = project.predictReleaseProperties();
+				if (Phase.UpdatedDownstreams.compareTo(phase) > 0) project.updatePhase(Phase.UpdatedDownstreams);
 				log.info("Updated downstreams {} {}", name, releaseProperties.getRelease());
+				break;
 			}
-
-			// Perform the releases
-			for (String name : order) {
-				final ReleaseProject project = getContext().getProjects().get(name);
-
-				if (Phase.Released.compareTo(project.getPhase()) > 0) {
+			case Released:
+				if (Phase.Released.compareTo(phase) > 0) {
 					log.info("Releasing {}", name);
-					final Git git = project.getGit();
-
-					// Check out the branch head
-					git.checkout().setCreateBranch(false).setName(getBranch()).call();
-					// Perform the release
-					getContext().getMaven().releasePerform(project.getDirectory(), IMaven.PROFILES_RELEASE);
-
+					synchronized (getLock(project)) {
+						retVal += timed(name + ":perform", () -> {
+							// Check out the branch head
+							project.getGit().checkout().setCreateBranch(false).setName(getBranch()).call();
+							// Perform the release
+							getContext().getMaven().releasePerform(project.getDirectory(), IMaven.PROFILES_RELEASE, getMavenProperties(true, isVerified(project)));
+						});
+					}
 					project.updatePhase(Phase.Released);
 				}
 				log.info("Released {}", name);
-			}
-
-			// Restarting development
-			for (String name : order) {
-				final ReleaseProject project = getContext().getProjects().get(name);
-				Phase phase = project.getPhase();
-
+				break;
+			case InstalledDevelopment:
 				if (Phase.InstalledDevelopment.compareTo(phase) > 0) {
 					log.info("Restarting development of {}", name);
-					// Check out the branch head
-					project.getGit().checkout().setCreateBranch(false).setName(getBranch()).call();
-					// Maven install (stream stdio to the console) the new development versions
-					getContext().getMaven().install(project.getDirectory(), false, IMaven.PROFILES_RELEASE);
-
-					log.info("Updating downstream {}", name);
-					for (BulldozerProject downstream : getContext().getProjects().values()) {
-						// Skip ourselves & projects that don't depend on us
-						if ((downstream == project) || !downstream.getDependencies().getTransitive().keySet().contains(name)) continue;
-						// Record that we're updating this project so it needs to be re-installed at the end
-						unreleasedProjectsToReinstall.add(downstream.getName());
-						// Update all the downstreams to new snapshot versions
-						switchToBranch(downstream.getGit());
-						getContext().getMaven().updateVersions(downstream.getDirectory(), downstream.getParentGroup().equals(project.getGroup()), true, PROFILES_TO_UPDATE, HCollection.asList(project.getGroup() + ":*"));
+					synchronized (getLock(project)) {
+						// Check out the branch head
+						project.getGit().checkout().setCreateBranch(false).setName(getBranch()).call();
+						// Update to the new development versions of all our upstreams at once
+						final Map<String, String> versions = getUpstreamVersions(name, State::getDevelopment);
+						retVal += timed(name + ":update-development:" + versions, () -> updateVersions(project, versions, true));
+						// Maven install (stream stdio to the console) the new development versions
+						retVal += timed(name + ":install-development", () -> getContext().getMaven().install(project.getDirectory(), isVerified(project), IMaven.PROFILES_RELEASE));
 					}
-
-					phase = project.updatePhase(Phase.InstalledDevelopment);
+					project.updatePhase(Phase.InstalledDevelopment);
 				}
 				log.info("Restarted development of {}", name);
-			}
+				break;
+			default:
+				throw new IllegalArgumentException(String.format("Phase %1$s cannot be scheduled!", step.getPhase()));
+		}
+		return retVal;
+	}
 
-			// Commit anything dirty, since those are the things with version updates
-			log.info("Committing downstream projects");
-			for (BulldozerProject project : getContext().getProjects().values()) {
-				log.info("\t{}", project.getName());
-				// Commit anything dirty, since those are the things with version updates
-				switchToBranch(project.getGit());
-				commitUpstreamReversion(project.getGit());
-				project.preserveTemp();
-			}
+	/**
+	 * Check all the projects for anything which would stop the release part way through, concurrently, so that all the problems can be reported at once
+	 * before anything is changed.
+	 * 
+	 * @return A description of each problem.
+	 */
+	protected List<String> preflight() {
+		final List<String> retVal = Collections.synchronizedList(new ArrayList<>());
+		getContext().parallel(getContext().getProjects().values(), project -> {
+			final String name = project.getName();
+			final Git git = project.getGit();
+			try {
+				// Every project may have upstream versions committed, so none of them can have uncommitted changes
+				if (!isAllowDirty()) {
+					final Status status = git.status().call();
+					if (!status.isClean() && !status.getUncommittedChanges().isEmpty()) retVal.add(String.format("%1$s has uncommitted changes, please commit them and try again!", name));
+				}
+				if (!releasing.contains(name)) return;
 
-			// Re-install all the downstream projects that have had updated upstreams
-			log.info("Reinstalling downstream projects");
-			final List<String> unreleasedInstallOrder = HGraph.toposort(unreleasedProjectsToReinstall, p -> getContext().getNameToProject().get(p).getDependencies().getTransitive().keySet(), false);
-			for (String name : unreleasedInstallOrder) {
-				log.info("\t{}", name);
-				final BulldozerProject project = getContext().getNameToProject().get(name);
-				// Maven install (stream stdio to the console) the downstream, since it was updated
-				getContext().getMaven().install(project.getDirectory(), false, HCollection.emptyList());
+				final Phase phase = project.getPhase();
+				final ReleaseProperties releaseProperties = project.predictReleaseProperties();
+				if (Phase.Prepared.compareTo(phase) > 0) {
+					if (!isAllowDirty() && (git.getRepository().findRef(Constants.R_TAGS + releaseProperties.getTag()) != null)) retVal.add(String.format("%1$s is already tagged %2$s, please remove the tag and try again!", name, releaseProperties.getTag()));
+				} else if (Phase.InstalledDevelopment.compareTo(phase) > 0) {
+					if (!HGit.isBranch(git, getBranch())) retVal.add(String.format("%1$s was prepared, but the release branch %2$s is missing!", name, getBranch()));
+					final State state = project.getState();
+					if ((state.getRelease() == null) || (state.getDevelopment() == null)) retVal.add(String.format("The new versions of %1$s are unknown, it may have been prepared by an older version of bulldozer!", name));
+				}
+			} catch (IOException | GitAPIException exception) {
+				retVal.add(String.format("Failed to check %1$s: %2$s", name, exception));
 			}
+		});
+		return retVal;
+	}
 
-			// Find the local maven repository
-			final Path repository = Paths.get(getContext().getMaven().evaluate(getContext().getRoot(), "settings.localRepository"));
-			// Cleanup
-			for (String name : order) {
-				final ReleaseProject project = getContext().getProjects().get(name);
-				Phase phase = project.getPhase();
+	protected static List<Step> steps(Collection<String> names, Phase phase) {
+		return names.stream().map(name -> new Step(name, phase)).toList();
+	}
 
-				if (Phase.DeletedRelease.compareTo(phase) > 0) {
-					log.info("Cleaning up temporary release install of {}", name);
-					final String releaseVersion = Version.parse(project.getVersion()).toReleaseVersion().toString();
-					// Remove the maven temporary install of the new release version
-					Path current = repository;
-					for (String component : project.getGroup().split("\\.")) {
-						current = current.resolve(component);
-					}
-					for (String artifact : HCollection.concatenate(HCollection.asList(name), project.getPom().getModules())) {
-						HFile.delete(current.resolve(artifact).resolve(releaseVersion), true);
-					}
-					phase = project.updatePhase(Phase.DeletedRelease);
-				}
-				log.info("Cleaned up temporary release install of {}", name);
-			}
+	/**
+	 * Get the new versions of the upstreams of a project which are being released.
+	 * 
+	 * @param name The name of the downstream project.
+	 * @param version A function to select the version from the release state of each upstream.
+	 * @return A map from the groups of the upstreams to their new versions.
+	 */
+	protected Map<String, String> getUpstreamVersions(String name, IFunction1<? super State, ? extends String> version) {
+		final Map<String, String> retVal = new LinkedHashMap<>();
+		for (String upstream : getContext().getGraph().getUpstreams(name)) {
+			if (!releasing.contains(upstream)) continue;
+			final ReleaseProject project = getContext().getProjects().get(upstream);
+			final String value = version.apply(project.getState());
+			if (value == null) throw new IllegalStateException(String.format("The new version of %1$s is unknown, it may have been prepared by an older version of bulldozer!", upstream));
+			retVal.put(project.getGroup(), value);
 		}
-		return IStandardCommand.SUCCESS;
+		return retVal;
+	}
+
+	/**
+	 * Update a downstream project to new versions of its upstreams, all at once.
+	 * 
+	 * @param downstream The downstream project to update.
+	 * @param versions A map from the groups of the upstreams to their new versions.
+	 * @param snapshot True if the new versions are snapshots.
+	 * @throws IOException If the POM files of the downstream could not be updated.
+	 */
+	protected void updateVersions(BulldozerProject downstream, Map<String, String> versions, boolean snapshot) throws IOException {
+		if (versions.isEmpty()) return;
+		log.info("Updating {} to {}", downstream.getName(), versions);
+		if (isRewriteVersions()) new POMVersionRewriter(versions).rewrite(downstream.getDirectory());
+		else getContext().getMaven().updateVersions(downstream.getDirectory(), versions.containsKey(downstream.getParentGroup()), snapshot, PROFILES_TO_UPDATE, versions.keySet().stream().map(group -> group + ":*").toList());
 	}
 
 	protected void switchToBranch(final Git git) throws IOException, GitAPIException {
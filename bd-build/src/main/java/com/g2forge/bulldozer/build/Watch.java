@@ -0,0 +1,293 @@
+package com.g2forge.bulldozer.build;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.event.Level;
+
+import com.g2forge.alexandria.command.command.IConstructorCommand;
+import com.g2forge.alexandria.command.command.IStandardCommand;
+import com.g2forge.alexandria.command.exit.IExit;
+import com.g2forge.alexandria.java.close.ICloseable;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.fluent.optional.NullableOptional;
+import com.g2forge.alexandria.java.io.HIO;
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.java.project.HProject;
+import com.g2forge.alexandria.log.HLog;
+import com.g2forge.alexandria.wizard.PropertyStringInput;
+import com.g2forge.bulldozer.build.model.BulldozerGraph;
+import com.g2forge.bulldozer.build.model.BulldozerProject;
+import com.g2forge.bulldozer.build.model.Context;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Watch all the projects in the workspace for changes, and reinstall each changed project and all its downstreams. Changes are collected until the workspace
+ * has been quiet for a moment, so that saving many files at once results in one build. A build which is still running when more changes arrive is cancelled,
+ * and the projects it hadn't installed yet are built again along with the new changes. Cancelling interrupts the build and kills its maven processes, and
+ * waits for them to stop before the next build starts, so two builds never run in the same project at once. When a POM changes the workspace is reloaded, since the projects
+ * and the dependencies between them may have changed.
+ */
+@Data
+@Slf4j
+public class Watch implements IConstructorCommand {
+	public static final IStandardCommand COMMAND_FACTORY = IStandardCommand.of(invocation -> new Watch(new Context<BulldozerProject>(BulldozerProject::new, invocation.getArgumentsAsArguments().get(0).getPath())));
+
+	public static void main(String[] args) throws Throwable {
+		IStandardCommand.main(args, COMMAND_FACTORY);
+	}
+
+	/** The workspace, which is replaced whenever a POM changes. */
+	protected volatile Context<BulldozerProject> context;
+
+	/** How long the workspace must be quiet, in milliseconds, before the changes are built. */
+	protected final long debounce = new PropertyStringInput("bulldozer.watch.debounce").map(Long::valueOf).fallback(NullableOptional.of(500L)).get();
+
+	/** If true, projects are installed without running their tests. */
+	protected final boolean skipTests = new PropertyStringInput("bulldozer.watch.skiptests").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/** The project directories, longest first so that a nested project owns its own directories, and the names of the projects. */
+	protected final Map<Path, String> directories = new LinkedHashMap<>();
+
+	/** The directories being watched, and the projects they belong to. */
+	protected final Map<WatchKey, String> keys = new HashMap<>();
+
+	/** The projects which need to be installed, which are removed as they're installed so that a cancelled or failed build can be picked up again. */
+	protected final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+	/** The thread running the current build, if any. */
+	protected Thread builder;
+
+	public Watch(Context<BulldozerProject> context) {
+		this.context = context;
+	}
+
+	/**
+	 * Start building the pending projects, first cancelling any build in progress.
+	 */
+	protected void build() {
+		cancel();
+		final Context<BulldozerProject> context = getContext();
+		final Set<String> names = new LinkedHashSet<>(getPending());
+		if (names.isEmpty()) return;
+		builder = new Thread(() -> {
+			try {
+				install(context, names);
+				log.info("Watching for changes");
+			} catch (Throwable throwable) {
+				if (Thread.currentThread().isInterrupted()) log.info("Cancelled the build of {}", names);
+				else log.error(String.format("Failed to build %1$s, they will be built again on the next change", HCollection.intersection(names, getPending())), throwable);
+			}
+		}, "bulldozer-watch");
+		builder.start();
+	}
+
+	/**
+	 * Cancel the build in progress, if any, and wait for it to stop.
+	 */
+	protected void cancel() {
+		if ((builder == null) || !builder.isAlive()) return;
+		log.info("Cancelling the build in progress, since it's been made stale by newer changes");
+		builder.interrupt();
+		// Interrupting the builder doesn't stop the maven processes it's waiting on, and the only processes we start are builds
+		ProcessHandle.current().children().forEach(child -> {
+			child.descendants().forEach(ProcessHandle::destroy);
+			child.destroy();
+		});
+		try {
+			builder.join();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while cancelling the build in progress!", exception);
+		}
+	}
+
+	/**
+	 * Wait for a change, and then keep collecting changes until the workspace has been quiet for {@link #getDebounce()} milliseconds.
+	 *
+	 * @param watcher The watch service.
+	 * @param changed The names of the projects which changed, to which this method adds.
+	 * @return <code>true</code> if a POM may have changed.
+	 * @throws InterruptedException if we're interrupted while waiting.
+	 */
+	protected boolean collect(WatchService watcher, Set<String> changed) throws InterruptedException {
+		boolean retVal = false;
+		WatchKey key = watcher.take();
+		while (key != null) {
+			retVal |= poll(watcher, key, changed);
+			key = watcher.poll(getDebounce(), TimeUnit.MILLISECONDS);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Install projects. This is the work done by each build.
+	 *
+	 * @param context The workspace.
+	 * @param names The names of the projects to install, which are removed from {@link #getPending()} as they're installed.
+	 */
+	protected void install(Context<BulldozerProject> context, Set<String> names) {
+		Build.install(context, names, isSkipTests(), getPending()::remove);
+	}
+
+	@Override
+	public IExit invoke() throws Throwable {
+		HLog.getLogControl().setLogLevel(Level.INFO);
+		try (ICloseable closeProjects = () -> HIO.closeAll(getContext().getProjects().values()); final WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			getContext().preload();
+			watch(watcher);
+
+			while (!Thread.currentThread().isInterrupted()) {
+				final Set<String> changed = new LinkedHashSet<>();
+				final boolean model = collect(watcher, changed);
+				if (changed.isEmpty()) continue;
+				if (model) reload(watcher);
+
+				schedule(getContext().getGraph(), getContext().getNameToProject().keySet(), changed);
+				build();
+			}
+		} finally {
+			cancel();
+		}
+		return IStandardCommand.SUCCESS;
+	}
+
+	/**
+	 * @param path A file or directory in a project.
+	 * @return <code>true</code> if changes to the path should not cause a build, because they're build output, version control metadata, or bulldozer's own.
+	 */
+	protected boolean isIgnored(Path path) {
+		final String filename = path.getFileName().toString();
+		return filename.equals("target") || filename.startsWith(".") || filename.startsWith("bulldozer-");
+	}
+
+	/**
+	 * @param path A file in a project.
+	 * @return <code>true</code> if changes to the file may change the projects in the workspace or the dependencies between them.
+	 */
+	protected boolean isModel(Path path) {
+		return path.getFileName().toString().equals(HProject.POM);
+	}
+
+	/**
+	 * Handle the events on a watched directory.
+	 *
+	 * @param watcher The watch service.
+	 * @param key The key of the watched directory.
+	 * @param changed The names of the projects which changed, to which this method adds.
+	 * @return <code>true</code> if a POM may have changed.
+	 */
+	protected boolean poll(WatchService watcher, WatchKey key, Set<String> changed) {
+		final String name = getKeys().get(key);
+		final Path directory = (Path) key.watchable();
+		boolean retVal = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// We don't know what we missed, so assume the worst
+				if (name != null) changed.add(name);
+				retVal = true;
+				continue;
+			}
+
+			final Path path = directory.resolve((Path) event.context());
+			if (isIgnored(path)) continue;
+			if ((event.kind() == StandardWatchEventKinds.ENTRY_CREATE) && Files.isDirectory(path)) register(watcher, path);
+			if (isModel(path)) retVal = true;
+			if (name != null) changed.add(name);
+		}
+		if (!key.reset()) getKeys().remove(key);
+		return retVal;
+	}
+
+	/**
+	 * Watch a directory and all its subdirectories.
+	 *
+	 * @param watcher The watch service.
+	 * @param start The directory to watch.
+	 */
+	protected void register(WatchService watcher, Path start) {
+		final Map<Path, String> directories = getDirectories();
+		try {
+			Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+					final Path normalized = directory.toAbsolutePath().normalize();
+					if (!directory.equals(start) && (isIgnored(directory) || directories.containsKey(normalized))) return FileVisitResult.SKIP_SUBTREE;
+					final String name = directories.entrySet().stream().filter(entry -> normalized.startsWith(entry.getKey())).map(Map.Entry::getValue).findFirst().orElse(null);
+					if (name == null) return FileVisitResult.SKIP_SUBTREE;
+					getKeys().put(directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), name);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to watch %1$s!", start), exception);
+		}
+	}
+
+	/**
+	 * Reload the workspace after a POM has changed, so that builds use the current projects and dependencies.
+	 *
+	 * @param watcher The watch service.
+	 */
+	protected void reload(WatchService watcher) {
+		// The build in progress is using the old workspace
+		cancel();
+		log.info("Reloading the workspace, since a POM has changed");
+		final Context<BulldozerProject> previous = getContext();
+		HIO.closeAll(previous.getProjects().values());
+		setContext(new Context<BulldozerProject>(previous.getConstructor(), previous.getRoot()));
+		getContext().preload();
+		watch(watcher);
+	}
+
+	/**
+	 * Add the projects affected by some changes to the pending projects.
+	 *
+	 * @param graph The dependencies between the projects in the workspace.
+	 * @param names The names of the projects in the workspace, so that pending projects which no longer exist are dropped.
+	 * @param changed The names of the projects which changed.
+	 * @return The projects affected by the changes.
+	 */
+	protected Set<String> schedule(BulldozerGraph graph, Set<String> names, Set<String> changed) {
+		final Set<String> retVal = HCollection.intersection(graph.getAffected(changed), names);
+		log.info("Changes in {} affect {}", changed, retVal);
+		getPending().retainAll(names);
+		getPending().addAll(retVal);
+		return retVal;
+	}
+
+	/**
+	 * Watch the directories of all the projects in the workspace, replacing any previous watches.
+	 *
+	 * @param watcher The watch service.
+	 */
+	protected void watch(WatchService watcher) {
+		getKeys().keySet().forEach(WatchKey::cancel);
+		getKeys().clear();
+
+		getDirectories().clear();
+		getContext().getProjects().values().stream().sorted((a, b) -> Integer.compare(b.getDirectory().toAbsolutePath().normalize().getNameCount(), a.getDirectory().toAbsolutePath().normalize().getNameCount())).forEach(project -> getDirectories().put(project.getDirectory().toAbsolutePath().normalize(), project.getName()));
+		for (Path directory : getDirectories().keySet()) {
+			register(watcher, directory);
+		}
+		log.info("Watching {} directories in {} projects for changes", getKeys().size(), getDirectories().size());
+	}
+}
@@ -0,0 +1,264 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.java.io.file.HFile;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link IMaven} which restores the results of {@link #install(Path, boolean, List, Map)} and {@link #verify(Path)} from a content addressed cache
+ * instead of running maven, when the same inputs have been built before. The cache key of each build is supplied by an {@link IDescriber}, and should cover
+ * everything that could change the result. Installed artifacts are copied out of the local repository after a successful build, and copied back in on a
+ * hit. Builds in directories the describer doesn't recognize, and builds with extra properties (which may redirect the local repository), are never cached.
+ * An optional shared cache directory, for example on a network drive, is checked when the local cache misses and is updated along with it.
+ */
+@Getter
+@RequiredArgsConstructor
+@Slf4j
+public class CachingMaven implements IMaven {
+	@Data
+	@Builder
+	@AllArgsConstructor
+	public static class Entry {
+		/** A hash of everything the build depends on. */
+		protected final String key;
+
+		/** The local repository the build installs into. */
+		protected final Path repository;
+
+		/** The directories, relative to the local repository, which the build installs artifacts into. */
+		@Singular
+		protected final List<Path> artifacts;
+	}
+
+	@FunctionalInterface
+	public interface IDescriber {
+		/**
+		 * Describe the build in a directory.
+		 *
+		 * @param path The directory maven will be run in.
+		 * @return A description of the build, or <code>null</code> if it should not be cached.
+		 */
+		public Entry describe(Path path);
+	}
+
+	/** The maven to run on a cache miss. */
+	protected final IMaven maven;
+
+	protected final IDescriber describer;
+
+	/** The local cache directory. */
+	protected final Path cache;
+
+	/** The shared cache directory, or <code>null</code> if there isn't one. */
+	protected final Path shared;
+
+	protected static void copy(Path source, Path target) throws IOException {
+		try (final Stream<Path> stream = Files.walk(source)) {
+			for (Path path : (Iterable<Path>) stream::iterator) {
+				final Path destination = target.resolve(source.relativize(path).toString());
+				if (Files.isDirectory(path)) Files.createDirectories(destination);
+				else Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+
+	protected static String key(Entry entry, String goal) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest((entry.getKey() + '\n' + goal).getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	@Override
+	public Stream<String> dependencyTree(Path path, boolean verbose, List<String> includes) {
+		return getMaven().dependencyTree(path, verbose, includes);
+	}
+
+	@Override
+	public Stream<String> dependencyTree(Path path, boolean verbose, List<String> profiles, List<String> includes) {
+		return getMaven().dependencyTree(path, verbose, profiles, includes);
+	}
+
+	@Override
+	public Stream<String> dependencyTree(Path path, boolean verbose, String... includes) {
+		return getMaven().dependencyTree(path, verbose, includes);
+	}
+
+	@Override
+	public Stream<String> dependencyTreeJSON(Path path, List<String> profiles, List<String> includes, String output) {
+		return getMaven().dependencyTreeJSON(path, profiles, includes, output);
+	}
+
+	@Override
+	public Stream<String> evaluateRaw(Path path, String expression) {
+		return getMaven().evaluateRaw(path, expression);
+	}
+
+	/**
+	 * Find a cached build, copying it from the shared cache to the local one if needed.
+	 *
+	 * @param key The cache key.
+	 * @return The directory of the cached build, or <code>null</code> if it's not in either cache.
+	 * @throws IOException If the shared cache could not be copied.
+	 */
+	protected Path find(String key) throws IOException {
+		final Path local = path(getCache(), key);
+		if (Files.isDirectory(local)) return local;
+		if (getShared() == null) return null;
+		final Path remote = path(getShared(), key);
+		if (!Files.isDirectory(remote)) return null;
+		log.info("Copying {} from the shared build cache", key);
+		return publish(remote, getCache(), key);
+	}
+
+	@Override
+	public void install(Path path, boolean skipTests, List<String> profiles, Map<String, String> properties) {
+		final Entry entry = ((properties == null) || properties.isEmpty()) ? getDescriber().describe(path) : null;
+		if (entry == null) {
+			getMaven().install(path, skipTests, profiles, properties);
+			return;
+		}
+
+		final String goal = "install" + (skipTests ? " -DskipTests" : "") + ((profiles == null) || profiles.isEmpty() ? "" : " -P" + String.join(",", profiles));
+		final String key = key(entry, goal);
+		try {
+			final Path found = find(key);
+			if (found != null) {
+				log.info("Restoring the install of {} from the build cache", path);
+				copy(found, entry.getRepository());
+				return;
+			}
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to restore the install of %1$s from the build cache!", path), exception);
+		}
+
+		getMaven().install(path, skipTests, profiles, properties);
+		store(key, entry, path);
+	}
+
+	@Override
+	public void installReactor(Path path, String threads, String log, List<String> profiles) {
+		getMaven().installReactor(path, threads, log, profiles);
+	}
+
+	/**
+	 * @param directory A cache directory.
+	 * @param key A cache key.
+	 * @return The directory for the key, which is spread over subdirectories by the prefix of the key to keep directories small.
+	 */
+	protected Path path(Path directory, String key) {
+		return directory.resolve(key.substring(0, 2)).resolve(key);
+	}
+
+	/**
+	 * Copy a build into a cache. The build is copied to a temporary directory first and then moved into place, so that a partial copy is never mistaken for
+	 * a cached build.
+	 *
+	 * @param source The directory holding the build.
+	 * @param directory The cache directory.
+	 * @param key The cache key.
+	 * @return The cached build.
+	 * @throws IOException If the build could not be copied.
+	 */
+	protected Path publish(Path source, Path directory, String key) throws IOException {
+		final Path target = path(directory, key);
+		Files.createDirectories(target.getParent());
+		final Path temp = Files.createTempDirectory(target.getParent(), key);
+		try {
+			copy(source, temp);
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (FileSystemException exception) {
+				// Someone else cached the same build first, which is just as good, though POSIX reports that as the target not being empty
+				if (!Files.isDirectory(target)) throw exception;
+			}
+		} finally {
+			if (Files.exists(temp)) HFile.delete(temp, true);
+		}
+		return target;
+	}
+
+	@Override
+	public void releasePerform(Path path, List<String> profiles, Map<String, String> properties) {
+		getMaven().releasePerform(path, profiles, properties);
+	}
+
+	@Override
+	public void releasePrepare(Path path, String tag, String release, String development, List<String> profiles, Map<String, String> properties) {
+		getMaven().releasePrepare(path, tag, release, development, profiles, properties);
+	}
+
+	/**
+	 * Store a successful build in the cache, and the shared cache if there is one. Failures are logged rather than thrown, since the build itself succeeded.
+	 *
+	 * @param key The cache key.
+	 * @param entry The description of the build.
+	 * @param path The directory the build was run in.
+	 */
+	protected void store(String key, Entry entry, Path path) {
+		try {
+			final Path staging = Files.createTempDirectory("bulldozer-cache");
+			try {
+				for (Path artifact : entry.getArtifacts()) {
+					final Path installed = entry.getRepository().resolve(artifact);
+					if (Files.isDirectory(installed)) copy(installed, staging.resolve(artifact.toString()));
+				}
+				final Path local = publish(staging, getCache(), key);
+				if (getShared() != null) publish(local, getShared(), key);
+			} finally {
+				HFile.delete(staging, true);
+			}
+		} catch (IOException | RuntimeException exception) {
+			log.warn(String.format("Failed to store the build of %1$s in the build cache", path), exception);
+		}
+	}
+
+	@Override
+	public void updateVersions(Path path, boolean parent, boolean snapshot, List<String> profiles, List<String> includes) {
+		getMaven().updateVersions(path, parent, snapshot, profiles, includes);
+	}
+
+	@Override
+	public void verify(Path path) {
+		final Entry entry = getDescriber().describe(path);
+		if (entry == null) {
+			getMaven().verify(path);
+			return;
+		}
+
+		// A verify has no output we need, so the cache only records that it passed
+		final String key = key(entry, "verify");
+		try {
+			if (find(key) != null) {
+				log.info("Skipping the verify of {}, which passed before with the same inputs", path);
+				return;
+			}
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to check the build cache for %1$s!", path), exception);
+		}
+
+		getMaven().verify(path);
+		store(key, Entry.builder().key(entry.getKey()).repository(entry.getRepository()).build(), path);
+	}
+}
@@ -0,0 +1,79 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A streaming reader for the JSON output of <code>mvn dependency:tree -DoutputType=json</code>. Each module in the reactor produces one root node, and the
+ * nodes are reported to a visitor as they are read, so the tree is never held in memory. With <code>-Dverbose</code> the tree also contains the nodes maven
+ * omitted because of a conflict or a duplicate, each with the version that was omitted, so that conflicting versions can be detected.
+ */
+public class DependencyTreeReader {
+	@FunctionalInterface
+	public interface IVisitor {
+		/**
+		 * Called for each node in the tree, parents before children.
+		 * 
+		 * @param depth The depth of the node, <code>0</code> for the module itself and <code>1</code> for its immediate dependencies.
+		 * @param descriptor The coordinates of the artifact.
+		 */
+		public void node(int depth, Descriptor descriptor);
+	}
+
+	protected static final JsonFactory factory = new JsonFactory();
+
+	public static void read(Path path, IVisitor visitor) throws IOException {
+		try (final JsonParser parser = factory.createParser(path.toFile())) {
+			while (parser.nextToken() != null) {
+				readNode(parser, 0, visitor);
+			}
+		}
+	}
+
+	protected static void readNode(JsonParser parser, int depth, IVisitor visitor) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) throw new JsonParseException(parser, "Expected a dependency node");
+
+		final Descriptor.DescriptorBuilder descriptor = Descriptor.builder();
+		boolean visited = false;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			parser.nextToken();
+			switch (field) {
+				case "groupId":
+					descriptor.groupId(parser.getText());
+					break;
+				case "artifactId":
+					descriptor.artifactId(parser.getText());
+					break;
+				case "version":
+					descriptor.version(parser.getText());
+					break;
+				case "type":
+					descriptor.packaging(parser.getText());
+					break;
+				case "scope":
+					descriptor.scope(parser.getText());
+					break;
+				case "children":
+					// The plugin writes the coordinates before the children, so we can report this node before its children
+					if (!visited) {
+						visitor.node(depth, descriptor.build());
+						visited = true;
+					}
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						readNode(parser, depth + 1, visitor);
+					}
+					break;
+				default:
+					parser.skipChildren();
+					break;
+			}
+		}
+		if (!visited) visitor.node(depth, descriptor.build());
+	}
+}
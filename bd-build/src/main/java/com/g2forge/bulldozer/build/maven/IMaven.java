@@ -2,6 +2,7 @@ package com.g2forge.bulldozer.build.maven;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import com.g2forge.alexandria.java.core.helpers.HCollection;
@@ -18,6 +19,15 @@ import com.g2forge.gearbox.command.converter.dumb.Working;
 import com.g2forge.gearbox.command.proxy.method.ICommandInterface;
 
 public interface IMaven extends ICommandInterface {
+	public static class PropertiesArgumentRenderer extends ASimpleArgumentRenderer<Map<String, String>> {
+		@Override
+		protected List<String> renderSimple(IMethodArgument<Map<String, String>> argument) {
+			final Map<String, String> properties = argument.get();
+			if (properties == null) return HCollection.emptyList();
+			return properties.entrySet().stream().map(entry -> "-D" + entry.getKey() + "=" + entry.getValue()).toList();
+		}
+	}
+
 	public static class SnapshotArgumentRenderer extends ASimpleArgumentRenderer<Boolean> {
 		@Override
 		protected List<String> renderSimple(IMethodArgument<Boolean> argument) {
@@ -34,6 +44,11 @@ public interface IMaven extends ICommandInterface {
 		}
 	}
 
+	/**
+	 * The fully qualified dependency plugin, so that we can rely on the version for <code>-DoutputType=json</code> support.
+	 */
+	public static final String PLUGIN_DEPENDENCY = "org.apache.maven.plugins:maven-dependency-plugin:3.8.1";
+
 	public static final List<String> PROFILES_RELEASE = HCollection.asList("release", "release-actual");
 
 	public static final String SNAPSHOT = "-SNAPSHOT";
@@ -46,6 +61,12 @@ public interface IMaven extends ICommandInterface {
 	@Command({ "mvn", "dependency:tree" })
 	public Stream<String> dependencyTree(@Working Path path, @Flag("-Dverbose") boolean verbose, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-Dincludes=") String... includes);
 
+	@Command({ "mvn", "dependency:tree" })
+	public Stream<String> dependencyTree(@Working Path path, @Flag("-Dverbose") boolean verbose, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-Dincludes=") List<String> includes);
+
+	@Command({ "mvn", PLUGIN_DEPENDENCY + ":tree", "-DoutputType=json", "-DappendOutput=true", "-Dverbose" })
+	public Stream<String> dependencyTreeJSON(@Working Path path, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-Dincludes=") List<String> includes, @Named("-DoutputFile=") String output);
+
 	public default String evaluate(Path path, String expression) {
 		try {
 			return HStream.findOne(evaluateRaw(path, expression).filter(line -> !(line.startsWith("[INFO]") || line.startsWith("[WARNING]") || line.startsWith("[ERROR]") || line.startsWith("Downloading from "))));
@@ -57,14 +78,38 @@ public interface IMaven extends ICommandInterface {
 	@Command({ "mvn", "help:evaluate" })
 	public Stream<String> evaluateRaw(@Working Path path, @Named("-Dexpression=") String expression);
 
+	public default void install(Path path, boolean skipTests, List<String> profiles) {
+		install(path, skipTests, profiles, Map.of());
+	}
+
 	@Command({ "mvn", "clean", "install" })
-	public void install(@Working Path path, @Flag("-DskipTests") boolean skipTests, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles);
+	public void install(@Working Path path, @Flag("-DskipTests") boolean skipTests, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(PropertiesArgumentRenderer.class) Map<String, String> properties);
+
+	/**
+	 * Install all the projects in a generated {@link Reactor} with a single multi-threaded build, writing the output to a log file. The aggregator POM itself
+	 * is not installed.
+	 * 
+	 * @param path The directory of the aggregator POM.
+	 * @param threads The maven thread count, for example <code>1C</code> for one per core.
+	 * @param log The log file.
+	 * @param profiles The profiles to enable.
+	 */
+	@Command({ "mvn", "clean", "install", "-Dorg.slf4j.simpleLogger.showThreadName=true", "--projects=!" + Reactor.GROUP + ":" + Reactor.ARTIFACT })
+	public void installReactor(@Working Path path, @Named("--threads=") String threads, @Named("--log-file=") String log, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles);
+
+	public default void releasePerform(Path path, List<String> profiles) {
+		releasePerform(path, profiles, Map.of());
+	}
 
 	@Command({ "mvn", "release:perform" })
-	public void releasePerform(@Working Path path, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles);
+	public void releasePerform(@Working Path path, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(PropertiesArgumentRenderer.class) Map<String, String> properties);
+
+	public default void releasePrepare(Path path, String tag, String release, String development, List<String> profiles) {
+		releasePrepare(path, tag, release, development, profiles, Map.of());
+	}
 
 	@Command({ "mvn", "--batch-mode", "release:prepare" })
-	public void releasePrepare(@Working Path path, @Named("-Dtag=") String tag, @Named("-DreleaseVersion=") String release, @Named("-DdevelopmentVersion=") String development, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles);
+	public void releasePrepare(@Working Path path, @Named("-Dtag=") String tag, @Named("-DreleaseVersion=") String release, @Named("-DdevelopmentVersion=") String development, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(PropertiesArgumentRenderer.class) Map<String, String> properties);
 
 	@Command({ "mvn" })
 	public void updateVersions(@Working Path path, @ArgumentRenderer(UpdateParentArgumentRenderer.class) boolean parent, @ArgumentRenderer(SnapshotArgumentRenderer.class) @Constant("versions:update-properties") boolean snapshot, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-P") List<String> profiles, @ArgumentRenderer(CSVArgumentRenderer.class) @Named("-Dincludes=") List<String> includes);
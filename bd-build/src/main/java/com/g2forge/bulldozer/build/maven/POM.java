@@ -1,5 +1,13 @@
 package com.g2forge.bulldozer.build.maven;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +25,7 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
+import com.g2forge.alexandria.java.project.HProject;
 import com.g2forge.bulldozer.build.maven.build.Build;
 import com.g2forge.bulldozer.build.maven.distribution.DistributionRepository;
 import com.g2forge.bulldozer.build.maven.distribution.DistributionSnapshotRepository;
@@ -41,6 +50,35 @@ public class POM implements IDescriptor {
 	@Getter(lazy = true)
 	private static final XmlMapper xmlMapper = createXMLMapper();
 
+	/**
+	 * Read the POM in a directory, and all its modules recursively, including the modules of every profile.
+	 *
+	 * @param directory The directory of the root POM.
+	 * @return The text of each POM file, by path, starting with the root.
+	 * @throws IOException If a POM could not be read.
+	 */
+	public static Map<Path, String> readModules(Path directory) throws IOException {
+		final Map<Path, String> retVal = new LinkedHashMap<>();
+		final Deque<Path> modules = new ArrayDeque<>();
+		modules.add(directory.toAbsolutePath().normalize());
+		while (!modules.isEmpty()) {
+			final Path module = modules.removeFirst();
+			final Path file = module.resolve(HProject.POM);
+			if (retVal.containsKey(file) || !Files.isRegularFile(file)) continue;
+
+			final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			retVal.put(file, content);
+			final POM pom = getXmlMapper().readValue(content, POM.class);
+			final List<String> children = new ArrayList<>();
+			if (pom.getModules() != null) children.addAll(pom.getModules());
+			if (pom.getProfiles() != null) pom.getProfiles().stream().filter(profile -> profile.getModules() != null).forEach(profile -> children.addAll(profile.getModules()));
+			for (String child : children) {
+				modules.add(module.resolve(child).normalize());
+			}
+		}
+		return retVal;
+	}
+
 	protected static XmlMapper createXMLMapper() {
 		final XmlMapper retVal = new XmlMapper();
 		retVal.registerModule(new JaxbAnnotationModule());
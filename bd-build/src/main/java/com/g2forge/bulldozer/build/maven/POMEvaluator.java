@@ -0,0 +1,210 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.java.project.HProject;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An in-process evaluator for simple maven expressions like <code>project.groupId</code> or <code>project.parent.basedir</code>. POMs are read using the
+ * {@link POM} model, parents are found using their <code>relativePath</code>, and <code>${...}</code> references are interpolated using the properties
+ * inherited through the local parent chain. Any expression which cannot be resolved from the local POM files is evaluated by maven instead.
+ */
+@Getter
+@RequiredArgsConstructor
+@Slf4j
+public class POMEvaluator {
+	@Data
+	@Builder
+	@AllArgsConstructor
+	protected static class Model {
+		protected final Path directory;
+
+		protected final POM pom;
+
+		/** The model of the parent POM, or <code>null</code> if there is no parent or it could not be found locally. */
+		protected final Model parent;
+	}
+
+	protected static final Pattern PATTERN_REFERENCE = Pattern.compile("\\$\\{([^}]+)\\}");
+
+	protected static final String PREFIX_PROJECT = "project.";
+
+	protected static final String PREFIX_PARENT = "parent.";
+
+	protected static final String PREFIX_ENV = "env.";
+
+	/** Maven to fall back to for expressions that cannot be resolved in-process, may be <code>null</code> if no fallback is desired. */
+	protected final IMaven maven;
+
+	protected final Map<Path, Optional<Model>> models = new ConcurrentHashMap<>();
+
+	/**
+	 * Evaluate a maven expression in the specified directory, falling back to maven itself if the expression cannot be resolved in-process.
+	 *
+	 * @param directory The directory containing the <code>pom.xml</code>.
+	 * @param expression The expression to evaluate, without the surrounding <code>${}</code>.
+	 * @return The value of the expression.
+	 */
+	public String evaluate(Path directory, String expression) {
+		final String retVal = resolve(directory, expression);
+		if (retVal != null) return retVal;
+		if (getMaven() == null) throw new IllegalArgumentException(String.format("Failed to evaluate \"%2$s\" in %1$s", directory, expression));
+		log.debug("Falling back to maven to evaluate \"{}\" in {}", expression, directory);
+		return getMaven().evaluate(directory, expression);
+	}
+
+	protected String getDirect(Model model, String name) {
+		final POM pom = model.getPom();
+		final Parent parent = pom.getParent();
+		switch (name) {
+			case "groupId":
+				return pom.getGroupId() != null ? pom.getGroupId() : (parent == null ? null : parent.getGroupId());
+			case "artifactId":
+				return pom.getArtifactId();
+			case "version":
+				return pom.getVersion() != null ? pom.getVersion() : (parent == null ? null : parent.getVersion());
+			case "packaging":
+				return pom.getPackaging() != null ? pom.getPackaging() : "jar";
+			case "name":
+				return pom.getName();
+			case "description":
+				return pom.getDescription();
+			case "url":
+				return pom.getUrl();
+			case "basedir":
+				return model.getDirectory().toString();
+			default:
+				return null;
+		}
+	}
+
+	protected Model getModel(Path directory) {
+		final Path normalized = directory.toAbsolutePath().normalize();
+		final Optional<Model> cached = getModels().get(normalized);
+		if (cached != null) return cached.orElse(null);
+
+		// Note that we don't use computeIfAbsent, since loading a model will recursively load its parents
+		final Model loaded = loadModel(normalized);
+		final Optional<Model> existing = getModels().putIfAbsent(normalized, Optional.ofNullable(loaded));
+		return existing == null ? loaded : existing.orElse(null);
+	}
+
+	protected String getProperty(Model model, String name) {
+		for (Model current = model; current != null; current = current.getParent()) {
+			final Map<String, String> properties = current.getPom().getProperties();
+			if ((properties != null) && properties.containsKey(name)) return properties.get(name);
+		}
+		// If the parent chain leaves the local file system, then the property might be inherited from a POM we can't see
+		for (Model current = model; current != null; current = current.getParent()) {
+			if ((current.getPom().getParent() != null) && (current.getParent() == null)) return null;
+		}
+
+		if (name.startsWith(PREFIX_ENV)) return System.getenv(name.substring(PREFIX_ENV.length()));
+		return System.getProperty(name);
+	}
+
+	protected String interpolate(Model model, String value, Set<String> visiting) {
+		if ((value == null) || (value.indexOf("${") < 0)) return value;
+
+		final Matcher matcher = PATTERN_REFERENCE.matcher(value);
+		final StringBuilder retVal = new StringBuilder();
+		while (matcher.find()) {
+			final String replacement = resolve(model, matcher.group(1), visiting);
+			if (replacement == null) return null;
+			matcher.appendReplacement(retVal, Matcher.quoteReplacement(replacement));
+		}
+		matcher.appendTail(retVal);
+		return retVal.toString();
+	}
+
+	protected Model loadModel(Path directory) {
+		final Path file = directory.resolve(HProject.POM);
+		if (!Files.isRegularFile(file)) return null;
+
+		final POM pom;
+		try {
+			pom = POM.getXmlMapper().readValue(file.toFile(), POM.class);
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to read %1$s!", file), exception);
+		}
+
+		final Model.ModelBuilder retVal = Model.builder().directory(directory).pom(pom);
+		final Parent parent = pom.getParent();
+		if (parent != null) {
+			// An empty relative path disables the local lookup, while a missing one defaults to the parent directory
+			final String relativePath = parent.getRelativePath() == null ? "../" + HProject.POM : parent.getRelativePath().trim();
+			if (!relativePath.isEmpty()) {
+				final Path resolved = directory.resolve(Paths.get(relativePath)).normalize();
+				final Path parentDirectory = Files.isDirectory(resolved) ? resolved : resolved.getParent();
+				final Model parentModel = parentDirectory == null ? null : getModel(parentDirectory);
+				// Like maven, only use the local parent if it's actually the one referenced
+				if ((parentModel != null) && Objects.equals(parent.getGroupId(), getDirect(parentModel, "groupId")) && Objects.equals(parent.getArtifactId(), getDirect(parentModel, "artifactId")) && Objects.equals(parent.getVersion(), getDirect(parentModel, "version"))) retVal.parent(parentModel);
+			}
+		}
+		return retVal.build();
+	}
+
+	/**
+	 * Attempt to evaluate a maven expression using only the local POM files.
+	 *
+	 * @param directory The directory containing the <code>pom.xml</code>.
+	 * @param expression The expression to evaluate, without the surrounding <code>${}</code>.
+	 * @return The value of the expression, or <code>null</code> if it could not be determined in-process.
+	 */
+	public String resolve(Path directory, String expression) {
+		final Model model = getModel(directory);
+		if (model == null) return null;
+		return resolve(model, expression, new HashSet<>());
+	}
+
+	protected String resolve(Model model, String expression, Set<String> visiting) {
+		// Guard against cycles in property references
+		final String key = model.getDirectory() + "#" + expression;
+		if (!visiting.add(key)) return null;
+		try {
+			if (expression.startsWith(PREFIX_PROJECT + PREFIX_PARENT)) {
+				final String name = expression.substring((PREFIX_PROJECT + PREFIX_PARENT).length());
+				final Parent parent = model.getPom().getParent();
+				if (parent == null) return null;
+				// The coordinates of the parent are available even if the parent isn't local
+				switch (name) {
+					case "groupId":
+						return interpolate(model, parent.getGroupId(), visiting);
+					case "artifactId":
+						return interpolate(model, parent.getArtifactId(), visiting);
+					case "version":
+						return interpolate(model, parent.getVersion(), visiting);
+				}
+				if (model.getParent() == null) return null;
+				return resolve(model.getParent(), PREFIX_PROJECT + name, visiting);
+			}
+			if (expression.startsWith(PREFIX_PROJECT) || expression.equals("basedir")) {
+				final String name = expression.startsWith(PREFIX_PROJECT) ? expression.substring(PREFIX_PROJECT.length()) : expression;
+				return interpolate(model, getDirect(model, name), visiting);
+			}
+			if (expression.startsWith("settings.") || expression.startsWith("session.")) return null;
+			return interpolate(model, getProperty(model, expression), visiting);
+		} finally {
+			visiting.remove(key);
+		}
+	}
+}
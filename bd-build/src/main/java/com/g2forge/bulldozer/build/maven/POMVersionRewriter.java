@@ -0,0 +1,287 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.project.HProject;
+import com.g2forge.bulldozer.build.maven.build.plugin.IPlugin;
+import com.g2forge.bulldozer.build.maven.build.plugin.VersionsPlugin;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Updates the versions of upstream projects referenced by a POM without running the versions plugin. Parent versions, literal dependency versions, and the
+ * version properties mapped to upstream artifacts by the {@link VersionsPlugin.Configuration} are rewritten directly in the XML text, so everything else in
+ * the file, including formatting and comments, is left exactly as it was.
+ */
+@Getter
+@AllArgsConstructor
+@Slf4j
+public class POMVersionRewriter {
+	/**
+	 * A minimal view of an XML element, recording where its content is in the original text so that it can be replaced in place.
+	 */
+	@Data
+	@RequiredArgsConstructor
+	protected static class Element {
+		protected final String name;
+
+		/** The offset of the first character of the content of this element. */
+		protected final int start;
+
+		protected final List<Element> children = new ArrayList<>();
+
+		/** The offset just past the last character of the content, or <code>-1</code> for an element with no content like <code>&lt;a/&gt;</code>. */
+		protected int end = -1;
+
+		/** True if the content includes anything other than text and child elements, such as comments or CDATA sections. */
+		protected boolean mixed = false;
+
+		public Element getChild(String name) {
+			for (Element child : getChildren()) {
+				if (child.getName().equals(name)) return child;
+			}
+			return null;
+		}
+
+		public List<Element> getDescendants(String... path) {
+			List<Element> current = HCollection.asList(this);
+			for (String name : path) {
+				final List<Element> next = new ArrayList<>();
+				for (Element element : current) {
+					for (Element child : element.getChildren()) {
+						if (child.getName().equals(name)) next.add(child);
+					}
+				}
+				current = next;
+			}
+			return current;
+		}
+
+		public String getText(String content) {
+			if (!isText()) return null;
+			return content.substring(getStart(), getEnd()).trim();
+		}
+
+		/**
+		 * @return True if this element contains only text, which can be safely replaced.
+		 */
+		public boolean isText() {
+			return (getEnd() >= 0) && getChildren().isEmpty() && !isMixed();
+		}
+	}
+
+	@Data
+	@AllArgsConstructor
+	protected static class Edit {
+		protected final int start;
+
+		protected final int end;
+
+		protected final String replacement;
+	}
+
+	protected static int find(String content, int from, String terminator) {
+		final int index = content.indexOf(terminator, from);
+		if (index < 0) throw new IllegalArgumentException(String.format("Unterminated XML construct at offset %1$d, expected \"%2$s\"", from, terminator));
+		return index + terminator.length();
+	}
+
+	/**
+	 * Scan the text of an XML document, and build a tree of the element offsets. This is not a validating parser, it only understands enough XML to find
+	 * elements in well formed POM files.
+	 *
+	 * @param content The XML text.
+	 * @return A synthetic element whose children are the top level elements of the document.
+	 */
+	protected static Element parse(String content) {
+		final Element retVal = new Element(null, 0);
+		final Deque<Element> stack = new ArrayDeque<>();
+		stack.push(retVal);
+
+		int index = 0;
+		while (true) {
+			final int open = content.indexOf('<', index);
+			if (open < 0) break;
+			if (content.startsWith("<!--", open)) {
+				stack.peek().setMixed(true);
+				index = find(content, open, "-->");
+			} else if (content.startsWith("<![CDATA[", open)) {
+				stack.peek().setMixed(true);
+				index = find(content, open, "]]>");
+			} else if (content.startsWith("<?", open)) index = find(content, open, "?>");
+			else if (content.startsWith("<!", open)) index = find(content, open, ">");
+			else {
+				// Find the end of the tag, skipping over any quoted attribute values
+				int close = open + 1;
+				char quote = 0;
+				for (; close < content.length(); close++) {
+					final char c = content.charAt(close);
+					if (quote != 0) {
+						if (c == quote) quote = 0;
+					} else if ((c == '"') || (c == '\'')) quote = c;
+					else if (c == '>') break;
+				}
+				if (close >= content.length()) throw new IllegalArgumentException(String.format("Unterminated XML tag at offset %1$d", open));
+
+				if (content.charAt(open + 1) == '/') {
+					final Element element = stack.pop();
+					if (stack.isEmpty()) throw new IllegalArgumentException(String.format("Unbalanced XML end tag at offset %1$d", open));
+					element.setEnd(open);
+				} else {
+					int nameEnd = open + 1;
+					while ((nameEnd < close) && !Character.isWhitespace(content.charAt(nameEnd)) && (content.charAt(nameEnd) != '/')) {
+						nameEnd++;
+					}
+					final Element element = new Element(content.substring(open + 1, nameEnd), close + 1);
+					stack.peek().getChildren().add(element);
+					if (content.charAt(close - 1) != '/') stack.push(element);
+				}
+				index = close + 1;
+			}
+		}
+		if (stack.size() != 1) throw new IllegalArgumentException("Unbalanced XML, one or more elements were not closed");
+		return retVal;
+	}
+
+	/** The new version for each group whose artifacts should be updated. */
+	protected final Map<String, String> versions;
+
+	/** The new version of the project itself, or <code>null</code> to leave it alone. */
+	protected final String version;
+
+	public POMVersionRewriter(Map<String, String> versions) {
+		this(versions, null);
+	}
+
+	protected void edit(String content, Element element, String version, List<Edit> edits) {
+		if ((element == null) || !element.isText()) return;
+		final String text = content.substring(element.getStart(), element.getEnd());
+		final String trimmed = text.trim();
+		if (trimmed.equals(version)) return;
+		final int start = element.getStart() + text.indexOf(trimmed);
+		edits.add(new Edit(start, start + trimmed.length(), version));
+	}
+
+	/**
+	 * Find the version properties which should be updated, based on the versions plugin configuration in a POM.
+	 *
+	 * @param pom The POM.
+	 * @return A map from property names to their new versions.
+	 */
+	public Map<String, String> getProperties(POM pom) {
+		final Map<String, String> retVal = new LinkedHashMap<>();
+		if ((pom.getBuild() == null) || (pom.getBuild().getPlugins() == null)) return retVal;
+		for (IPlugin plugin : pom.getBuild().getPlugins()) {
+			if (!(plugin instanceof VersionsPlugin)) continue;
+			final VersionsPlugin.Configuration configuration = ((VersionsPlugin) plugin).getConfiguration();
+			if ((configuration == null) || (configuration.getProperties() == null)) continue;
+			for (VersionsPlugin.Property property : configuration.getProperties()) {
+				if (property.getDependencies() == null) continue;
+				property.getDependencies().stream().map(Descriptor::getGroupId).filter(getVersions()::containsKey).findFirst().ifPresent(group -> retVal.put(property.getName(), getVersions().get(group)));
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Rewrite the text of a single POM.
+	 *
+	 * @param content The text of the POM.
+	 * @param properties The version properties to update, and their new values.
+	 * @return The updated text of the POM.
+	 */
+	public String rewrite(String content, Map<String, String> properties) {
+		final Element project = parse(content).getChild("project");
+		if (project == null) throw new IllegalArgumentException("No project element found in POM!");
+
+		final List<Edit> edits = new ArrayList<>();
+		if (getVersion() != null) edit(content, project.getChild("version"), getVersion(), edits);
+		{ // Update the parent
+			final Element parent = project.getChild("parent");
+			if (parent != null) {
+				final String version = getVersions().get(getText(content, parent, "groupId"));
+				if (version != null) edit(content, parent.getChild("version"), version, edits);
+			}
+		}
+
+		final List<Element> containers = new ArrayList<>();
+		containers.add(project);
+		containers.addAll(project.getDescendants("profiles", "profile"));
+		for (Element container : containers) {
+			// Update the properties
+			for (Element property : container.getDescendants("properties")) {
+				for (Element child : property.getChildren()) {
+					final String version = properties.get(child.getName());
+					if (version != null) edit(content, child, version, edits);
+				}
+			}
+
+			// Update any dependencies with literal versions
+			final List<Element> dependencies = new ArrayList<>();
+			dependencies.addAll(container.getDescendants("dependencies", "dependency"));
+			dependencies.addAll(container.getDescendants("dependencyManagement", "dependencies", "dependency"));
+			for (Element dependency : dependencies) {
+				final String version = getVersions().get(getText(content, dependency, "groupId"));
+				final String current = getText(content, dependency, "version");
+				if ((version != null) && (current != null) && !current.contains("${")) edit(content, dependency.getChild("version"), version, edits);
+			}
+		}
+
+		if (edits.isEmpty()) return content;
+		edits.sort(Comparator.comparingInt(Edit::getStart).reversed());
+		final StringBuilder retVal = new StringBuilder(content);
+		for (Edit edit : edits) {
+			retVal.replace(edit.getStart(), edit.getEnd(), edit.getReplacement());
+		}
+		return retVal.toString();
+	}
+
+	/**
+	 * Rewrite the POM in the specified directory, and all its modules including those in profiles.
+	 *
+	 * @param directory The directory of the root POM.
+	 * @return <code>true</code> if any POM was changed.
+	 * @throws IOException If a POM could not be read or written.
+	 */
+	public boolean rewrite(Path directory) throws IOException {
+		// Find all the POMs, and the version properties they configure
+		final Map<Path, String> contents = POM.readModules(directory);
+		final Map<String, String> properties = new LinkedHashMap<>();
+		for (String content : contents.values()) {
+			properties.putAll(getProperties(POM.getXmlMapper().readValue(content, POM.class)));
+		}
+
+		boolean retVal = false;
+		for (Map.Entry<Path, String> entry : contents.entrySet()) {
+			final String updated = rewrite(entry.getValue(), properties);
+			if (updated.equals(entry.getValue())) continue;
+			log.debug("Updating versions in {}", entry.getKey());
+			final Path temporary = entry.getKey().resolveSibling(HProject.POM + ".tmp");
+			Files.write(temporary, updated.getBytes(StandardCharsets.UTF_8));
+			Files.move(temporary, entry.getKey(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			retVal = true;
+		}
+		return retVal;
+	}
+
+	protected String getText(String content, Element element, String child) {
+		final Element found = element.getChild(child);
+		return found == null ? null : found.getText(content);
+	}
+}
@@ -0,0 +1,68 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.g2forge.alexandria.command.invocation.CommandInvocation;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.gearbox.command.converter.dumb.DumbCommandConverter;
+import com.g2forge.gearbox.command.process.IRunner;
+import com.g2forge.gearbox.command.process.ProcessBuilderRunner;
+import com.g2forge.gearbox.command.proxy.CommandProxyFactory;
+
+/**
+ * Creates implementations of {@link IMaven} which run an arbitrary maven launcher, rather than the <code>mvn</code> hard coded in the command annotations.
+ * The command lines are still generated from the annotations on {@link IMaven}, only the leading <code>mvn</code> is replaced. The intended launcher is the
+ * <a href="https://github.com/apache/maven-mvnd">maven daemon</a>, which keeps a long-lived maven runtime in the background so that the plugin realms, the
+ * artifact resolution cache and the parsed settings are reused across invocations instead of being rebuilt by a fresh JVM every time.
+ */
+public class ProcessMaven {
+	/** The default arguments for the maven daemon, which disable its interactive console and run each build on a single thread like <code>mvn</code>. */
+	public static final List<String> DAEMON_ARGUMENTS = HCollection.asList("-Dmvnd.rawStreams=true", "-T1");
+
+	/** The executable named by the {@link com.g2forge.gearbox.command.converter.dumb.Command} annotations on {@link IMaven}. */
+	protected static final String EXECUTABLE = "mvn";
+
+	/**
+	 * Create a maven which runs a launcher.
+	 *
+	 * @param launcher The launcher and any arguments to pass before the goals, for example <code>mvnd</code>.
+	 * @return A maven which runs the launcher.
+	 */
+	public static IMaven create(List<String> launcher) {
+		return create(launcher, new ProcessBuilderRunner());
+	}
+
+	/**
+	 * Create a maven which runs a launcher.
+	 *
+	 * @param launcher The launcher and any arguments to pass before the goals, for example <code>mvnd</code>.
+	 * @param runner The runner for the command lines.
+	 * @return A maven which runs the launcher.
+	 */
+	public static IMaven create(List<String> launcher, IRunner runner) {
+		return new CommandProxyFactory(DumbCommandConverter.create(), invocation -> runner.apply(launch(invocation, launcher))).apply(IMaven.class);
+	}
+
+	protected static <I, O> CommandInvocation<I, O> launch(CommandInvocation<I, O> invocation, List<String> launcher) {
+		return invocation.toBuilder().clearArguments().arguments(launch(invocation.getArguments(), launcher)).build();
+	}
+
+	/**
+	 * Replace the executable in a maven command line with a launcher. Commands which choose their own thread count, like
+	 * {@link IMaven#installReactor(java.nio.file.Path, String, String, java.util.List)}, are left to run with <code>mvn</code>. Maven only honors the first
+	 * thread count on the command line, so the launcher's own would win, and the reactor log is split using the thread names printed by maven's default
+	 * logger, which the daemon replaces.
+	 *
+	 * @param arguments The command line, starting with <code>mvn</code>.
+	 * @param launcher The launcher and any arguments to pass before the goals.
+	 * @return The command line to run.
+	 */
+	protected static List<String> launch(List<String> arguments, List<String> launcher) {
+		if (arguments.isEmpty() || !EXECUTABLE.equals(arguments.get(0))) throw new IllegalArgumentException(String.format("Expected a maven command line, but found %1$s!", arguments));
+		if (arguments.stream().anyMatch(argument -> argument.startsWith("--threads") || argument.startsWith("-T"))) return arguments;
+		final List<String> retVal = new ArrayList<>(launcher);
+		retVal.addAll(arguments.subList(1, arguments.size()));
+		return retVal;
+	}
+}
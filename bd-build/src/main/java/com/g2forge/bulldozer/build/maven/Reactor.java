@@ -0,0 +1,108 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.g2forge.alexandria.java.function.IFunction1;
+import com.g2forge.alexandria.java.io.HIO;
+import com.g2forge.alexandria.java.project.HProject;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A generated aggregator POM which builds a set of projects in a single maven reactor, so that maven orders them and builds independent modules
+ * concurrently. Maven interleaves the output of concurrent modules, so the build is run with thread names in the log, which {@link #split(Path, IFunction1)}
+ * uses to separate the log by project.
+ */
+@Getter
+@RequiredArgsConstructor
+public class Reactor {
+	public static final String GROUP = "com.g2forge.bulldozer.reactor";
+
+	public static final String ARTIFACT = "bulldozer-reactor";
+
+	/** A log line with the thread name shown, e.g. <code>[BuilderThread 1] [INFO] Some message</code>. */
+	protected static final Pattern PATTERN_LINE = Pattern.compile("^\\[([^\\]]+)\\] \\[[A-Z]+\\] (.*)$");
+
+	/** The header maven logs when it starts building a module, e.g. <code>---------&lt; group:artifact &gt;---------</code>. */
+	protected static final Pattern PATTERN_MODULE = Pattern.compile("^-+< ([^:\\s]+):([^\\s]+) >-+$");
+
+	/** The directory to generate the aggregator POM in. */
+	protected final Path directory;
+
+	/** The directories of the projects to build, by name. */
+	protected final Map<String, Path> projects;
+
+	/**
+	 * Separate a reactor build log by project. Lines are attributed to the module most recently started on the same thread. Lines without a thread name,
+	 * such as stack traces and the output of tests, are attributed to the same thread as the line before them. Lines which can't be attributed to a project
+	 * are left out.
+	 *
+	 * @param log The log of the reactor build.
+	 * @param groupToName A function from the group of a module to the name of the project it belongs to, or <code>null</code> if it's not one of ours.
+	 * @return The log file for each project which had any output.
+	 * @throws IOException If the logs could not be read or written.
+	 */
+	public Map<String, Path> split(Path log, IFunction1<? super String, ? extends String> groupToName) throws IOException {
+		final Map<String, Path> retVal = new LinkedHashMap<>();
+		final Map<String, Writer> writers = new LinkedHashMap<>();
+		final Map<String, String> threadToName = new HashMap<>();
+		try (final BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+			String line, thread = null;
+			while ((line = reader.readLine()) != null) {
+				final Matcher matcher = PATTERN_LINE.matcher(line);
+				if (matcher.matches()) {
+					thread = matcher.group(1);
+					final Matcher module = PATTERN_MODULE.matcher(matcher.group(2).trim());
+					if (module.matches()) {
+						final String name = groupToName.apply(module.group(1));
+						if (name == null) threadToName.remove(thread);
+						else threadToName.put(thread, name);
+					}
+				}
+				if (thread == null) continue;
+
+				final String name = threadToName.get(thread);
+				if (name == null) continue;
+				Writer writer = writers.get(name);
+				if (writer == null) {
+					final Path path = getDirectory().resolve(name + ".log");
+					writers.put(name, writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+					retVal.put(name, path);
+				}
+				writer.write(line);
+				writer.write(System.lineSeparator());
+			}
+		} finally {
+			HIO.closeAll(writers.values());
+		}
+		return retVal;
+	}
+
+	/**
+	 * Write the aggregator POM.
+	 *
+	 * @return The directory containing the aggregator POM.
+	 * @throws IOException If the POM could not be written.
+	 */
+	public Path write() throws IOException {
+		Files.createDirectories(getDirectory());
+		final POM.POMBuilder pom = POM.builder().modelVersion("4.0.0").groupId(GROUP).artifactId(ARTIFACT).version("0-SNAPSHOT").packaging("pom");
+		final Path base = getDirectory().toAbsolutePath().normalize();
+		for (Path project : getProjects().values()) {
+			pom.module(base.relativize(project.toAbsolutePath().normalize()).toString().replace('\\', '/'));
+		}
+		POM.getXmlMapper().writeValue(getDirectory().resolve(HProject.POM).toFile(), pom.build_());
+		return getDirectory();
+	}
+}
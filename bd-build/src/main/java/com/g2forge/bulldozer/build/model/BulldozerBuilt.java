@@ -0,0 +1,24 @@
+package com.g2forge.bulldozer.build.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The last successful build of a project by the <code>build</code> command, as stored in the {@link BulldozerIndex}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulldozerBuilt {
+	/** A hash of the sources of the project, and the hashes of the builds of all its upstreams, which together determine the installed artifacts. */
+	protected String hash;
+
+	/** The time the build completed, in milliseconds since the epoch. */
+	protected long completed;
+}
@@ -0,0 +1,125 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The dependencies between the projects in a workspace, indexed in both directions so that finding the downstreams of a project doesn't require looking at
+ * every other project.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulldozerGraph {
+	@Data
+	@AllArgsConstructor
+	@RequiredArgsConstructor
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Edges {
+		protected Set<String> upstreams = new TreeSet<>();
+
+		protected Set<String> immediateUpstreams = new TreeSet<>();
+
+		protected Set<String> downstreams = new TreeSet<>();
+
+		protected Set<String> immediateDownstreams = new TreeSet<>();
+	}
+
+	/** The key of the workspace graph in the {@link BulldozerIndex}. */
+	public static final String KEY = "workspace";
+
+	/**
+	 * Create a graph from the dependencies of each project.
+	 *
+	 * @param hash The hash of the models of all the projects.
+	 * @param dependencies The dependencies of each project, by name.
+	 * @return The graph.
+	 */
+	public static BulldozerGraph create(String hash, Map<String, BulldozerDependencies> dependencies) {
+		final Map<String, Edges> projects = new LinkedHashMap<>();
+		for (String name : dependencies.keySet()) {
+			projects.put(name, new Edges());
+		}
+		for (Map.Entry<String, BulldozerDependencies> entry : dependencies.entrySet()) {
+			final String name = entry.getKey();
+			final Edges edges = projects.get(name);
+			for (String upstream : entry.getValue().getTransitive().keySet()) {
+				edges.getUpstreams().add(upstream);
+				projects.computeIfAbsent(upstream, n -> new Edges()).getDownstreams().add(name);
+			}
+			for (String upstream : entry.getValue().getImmediate().keySet()) {
+				edges.getImmediateUpstreams().add(upstream);
+				projects.computeIfAbsent(upstream, n -> new Edges()).getImmediateDownstreams().add(name);
+			}
+		}
+		return new BulldozerGraph(hash, projects);
+	}
+
+	/** A hash of the models of all the projects, see {@link BulldozerProject#computeModelHash()}. */
+	protected String hash;
+
+	protected Map<String, Edges> projects;
+
+	protected Edges get(String name) {
+		final Edges retVal = getProjects().get(name);
+		return retVal == null ? new Edges() : retVal;
+	}
+
+	/**
+	 * @param changed The names of some projects which have changed.
+	 * @return The changed projects and all their downstreams, which are the projects which must be rebuilt.
+	 */
+	public Set<String> getAffected(Collection<String> changed) {
+		final Set<String> retVal = new LinkedHashSet<>(changed);
+		for (String name : changed) {
+			retVal.addAll(get(name).getDownstreams());
+		}
+		return retVal;
+	}
+
+	/**
+	 * @param name The name of a project.
+	 * @return The projects which depend on the specified project, directly or transitively.
+	 */
+	public Set<String> getDownstreams(String name) {
+		return Collections.unmodifiableSet(get(name).getDownstreams());
+	}
+
+	/**
+	 * @param name The name of a project.
+	 * @return The projects which depend directly on the specified project.
+	 */
+	public Set<String> getImmediateDownstreams(String name) {
+		return Collections.unmodifiableSet(get(name).getImmediateDownstreams());
+	}
+
+	/**
+	 * @param name The name of a project.
+	 * @return The projects which the specified project depends on directly.
+	 */
+	public Set<String> getImmediateUpstreams(String name) {
+		return Collections.unmodifiableSet(get(name).getImmediateUpstreams());
+	}
+
+	/**
+	 * @param name The name of a project.
+	 * @return The projects which the specified project depends on, directly or transitively.
+	 */
+	public Set<String> getUpstreams(String name) {
+		return Collections.unmodifiableSet(get(name).getUpstreams());
+	}
+}
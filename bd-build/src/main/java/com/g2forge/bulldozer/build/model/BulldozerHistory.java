@@ -0,0 +1,49 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How long each kind of task took for one project in past runs, as stored in the {@link BulldozerIndex}. Used to estimate how long future runs will take,
+ * so that the longest chains of work can be started first.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@RequiredArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulldozerHistory {
+	/** The weight of the latest duration in the moving average, so that the estimates follow changes in the project without jumping around. */
+	protected static final double WEIGHT = 0.5;
+
+	/** The moving average duration of each task, in milliseconds. */
+	protected Map<String, Long> durations;
+
+	/**
+	 * @param task The name of the task.
+	 * @return The estimated duration of the task in milliseconds, or <code>null</code> if it has never been run.
+	 */
+	public Long estimate(String task) {
+		return getDurations() == null ? null : getDurations().get(task);
+	}
+
+	/**
+	 * Record how long a task took.
+	 *
+	 * @param task The name of the task.
+	 * @param duration The duration of the task in milliseconds.
+	 * @return A new history including the duration.
+	 */
+	public BulldozerHistory record(String task, long duration) {
+		final Map<String, Long> durations = getDurations() == null ? new TreeMap<>() : new TreeMap<>(getDurations());
+		durations.merge(task, duration, (previous, latest) -> Math.round((previous * (1 - WEIGHT)) + (latest * WEIGHT)));
+		return toBuilder().durations(durations).build();
+	}
+}
@@ -0,0 +1,332 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.g2forge.alexandria.java.function.IFunction1;
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A workspace-wide index of cached project metadata, stored in a single binary file at the root of the workspace. The file is a header followed by a log of
+ * records, each of which holds a <a href="https://github.com/FasterXML/smile-format-specification">Smile</a> encoded value for a key. Updates are appended
+ * and flushed to disk, the last record for a key wins, and the log is compacted by atomically replacing the file once it contains mostly stale records.
+ * Every update is made while holding a lock on a file next to the index, after reading any records other processes have written since, so that several
+ * bulldozer processes can share one workspace without losing each other's updates. Each compaction writes a new generation number into the header, which
+ * tells the other processes to re-read the whole file rather than just its tail.
+ */
+@Slf4j
+public class BulldozerIndex {
+	public static final String BULLDOZER_INDEX = "bulldozer-index.bin";
+
+	protected static final int MAGIC = 0x42444958;
+
+	protected static final int FORMAT = 2;
+
+	protected static final int HEADER = Integer.BYTES * 2 + Long.BYTES;
+
+	protected static final int COMPACT_MINIMUM = 64;
+
+	/** The longest key the record format can hold, in UTF-8 bytes. */
+	protected static final int KEY_MAXIMUM = 0xFFFF;
+
+	/** Monitors for the lock files, since a file lock is held by the whole JVM and so can't keep out other threads. */
+	protected static final ConcurrentMap<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+	/**
+	 * Open the index, reading all the entries in it. A missing or unreadable file results in an empty index.
+	 *
+	 * @param path The path to the index file.
+	 * @return The index.
+	 */
+	public static BulldozerIndex open(Path path) {
+		final BulldozerIndex retVal = new BulldozerIndex(path);
+		retVal.load();
+		return retVal;
+	}
+
+	@Getter
+	protected final Path path;
+
+	@Getter(AccessLevel.PROTECTED)
+	protected final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+
+	/** The current Smile encoded value for each key. */
+	protected final Map<String, byte[]> entries = new LinkedHashMap<>();
+
+	/** The number of records in the file, including stale ones. */
+	protected int records = 0;
+
+	/** The generation of the file we've read, which changes every time it's compacted. */
+	protected long generation = 0;
+
+	/** The length of the valid portion of the file, or <code>-1</code> if the file must be rewritten before we can append to it. */
+	protected long valid = -1;
+
+	protected BulldozerIndex(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Append a record to the index file, or compact it if it's unusable or contains mostly stale records. The caller must hold the lock.
+	 *
+	 * @param record The encoded record.
+	 * @throws IOException If the index could not be written.
+	 */
+	protected void append(byte[] record) throws IOException {
+		if ((valid < 0) || (records >= Math.max(COMPACT_MINIMUM, entries.size() * 2))) {
+			compact();
+			return;
+		}
+
+		try (final FileChannel channel = FileChannel.open(getPath(), StandardOpenOption.WRITE)) {
+			// Drop any partial record left by an earlier failure, which is safe since we hold the lock and have read everything before it
+			if (channel.size() > valid) channel.truncate(valid);
+			channel.position(valid);
+			final ByteBuffer buffer = ByteBuffer.wrap(record);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+			valid = channel.position();
+		}
+		records++;
+	}
+
+	/**
+	 * Rewrite the index file with only the current entries, and atomically move it into place. The caller must hold the lock.
+	 *
+	 * @throws IOException If the index could not be written.
+	 */
+	protected void compact() throws IOException {
+		final Path absolute = getPath().toAbsolutePath();
+		final Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			final long generation = ThreadLocalRandom.current().nextLong();
+			final long position;
+			try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				final ByteBuffer header = ByteBuffer.allocate(HEADER);
+				header.putInt(MAGIC).putInt(FORMAT).putLong(generation).flip();
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+					final ByteBuffer buffer = ByteBuffer.wrap(encode(entry.getKey(), entry.getValue()));
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+				}
+				channel.force(true);
+				position = channel.position();
+			}
+			Files.move(temporary, getPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.generation = generation;
+			valid = position;
+			records = entries.size();
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	protected byte[] encode(String key, byte[] value) throws IOException {
+		final byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+		if (encoded.length > KEY_MAXIMUM) throw new IllegalArgumentException(String.format("Key \"%1$s...\" is %2$d bytes long, but the index can only hold keys of up to %3$d bytes!", key.substring(0, 64), encoded.length, KEY_MAXIMUM));
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try (final DataOutputStream output = new DataOutputStream(payload)) {
+			output.writeShort(encoded.length);
+			output.write(encoded);
+			if (value != null) output.write(value);
+		}
+		final byte[] bytes = payload.toByteArray();
+
+		final CRC32 crc = new CRC32();
+		crc.update(bytes);
+		final ByteBuffer retVal = ByteBuffer.allocate(Integer.BYTES * 2 + bytes.length);
+		retVal.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+		return retVal.array();
+	}
+
+	/**
+	 * Get the value of an entry.
+	 *
+	 * @param type The type of the value, whose name is also used to separate the keys of different types.
+	 * @param key The key of the entry.
+	 * @return A fresh copy of the value, or <code>null</code> if there is none.
+	 */
+	public synchronized <T> T get(Class<T> type, String key) {
+		final byte[] bytes = entries.get(toKey(type, key));
+		if (bytes == null) return null;
+		try {
+			return getMapper().readValue(bytes, type);
+		} catch (IOException exception) {
+			log.warn(String.format("Failed to read %1$s for %2$s from the index, will regenerate...", type.getSimpleName(), key));
+			return null;
+		}
+	}
+
+	protected void load() {
+		try {
+			refresh();
+		} catch (IOException exception) {
+			log.warn(String.format("Failed to read index %1$s, will regenerate...", getPath()));
+			reset();
+		}
+	}
+
+	/**
+	 * Read the records in the index file, starting at a position, into {@link #entries}.
+	 *
+	 * @param channel The index file.
+	 * @param position The position of the first record to read.
+	 * @return The position just after the last complete record.
+	 * @throws IOException If the file could not be read.
+	 */
+	protected long read(FileChannel channel, long position) throws IOException {
+		final long size = channel.size() - position;
+		if (size > Integer.MAX_VALUE) throw new IOException(String.format("Index %1$s is too large!", getPath()));
+		// Read into the heap rather than mapping the file, since a mapped file can't be replaced on Windows until the mapping is garbage collected
+		final ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(size, 0));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) break;
+		}
+		buffer.flip();
+
+		final CRC32 crc = new CRC32();
+		while (buffer.remaining() >= Integer.BYTES * 2) {
+			final int start = buffer.position();
+			final int length = buffer.getInt();
+			final int expected = buffer.getInt();
+			if ((length < 0) || (length > buffer.remaining())) {
+				buffer.position(start);
+				break;
+			}
+			final byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			crc.reset();
+			crc.update(bytes);
+			if ((int) crc.getValue() != expected) {
+				buffer.position(start);
+				break;
+			}
+
+			final ByteBuffer payload = ByteBuffer.wrap(bytes);
+			final int keyLength = payload.getShort() & 0xFFFF;
+			final String key = new String(bytes, Short.BYTES, keyLength, StandardCharsets.UTF_8);
+			final int offset = Short.BYTES + keyLength;
+			if (offset >= bytes.length) entries.remove(key);
+			else {
+				final byte[] value = new byte[bytes.length - offset];
+				System.arraycopy(bytes, offset, value, 0, value.length);
+				entries.put(key, value);
+			}
+			records++;
+		}
+		if (buffer.hasRemaining()) log.warn(String.format("Ignoring %2$d bytes of incomplete records at the end of %1$s", getPath(), buffer.remaining()));
+		return position + buffer.position();
+	}
+
+	/**
+	 * Bring {@link #entries} up to date with the index file, reading only the records written since we last looked unless the file has been compacted.
+	 *
+	 * @throws IOException If the file could not be read.
+	 */
+	protected void refresh() throws IOException {
+		if (!Files.exists(getPath())) {
+			reset();
+			return;
+		}
+		try (final FileChannel channel = FileChannel.open(getPath(), StandardOpenOption.READ)) {
+			final ByteBuffer header = ByteBuffer.allocate(HEADER);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) break;
+			}
+			header.flip();
+			if ((header.remaining() < HEADER) || (header.getInt() != MAGIC) || (header.getInt() != FORMAT)) {
+				log.warn(String.format("Ignoring unrecognized index %1$s", getPath()));
+				reset();
+				return;
+			}
+
+			final long generation = header.getLong();
+			if ((valid < 0) || (generation != this.generation)) {
+				// Someone else has compacted the file, so start over
+				reset();
+				this.generation = generation;
+				valid = HEADER;
+			}
+			valid = read(channel, valid);
+		}
+	}
+
+	protected void reset() {
+		entries.clear();
+		records = 0;
+		generation = 0;
+		valid = -1;
+	}
+
+	/**
+	 * Set the value of an entry, and write it to disk.
+	 *
+	 * @param type The type of the value.
+	 * @param key The key of the entry.
+	 * @param value The new value, or <code>null</code> to remove the entry.
+	 */
+	public synchronized <T> void put(Class<T> type, String key, T value) {
+		update(type, key, current -> value);
+	}
+
+	protected String toKey(Class<?> type, String key) {
+		return type.getSimpleName() + ":" + key;
+	}
+
+	/**
+	 * Atomically update the value of an entry. The function is applied to the latest value on disk, while no other process can write the index.
+	 *
+	 * @param type The type of the value.
+	 * @param key The key of the entry.
+	 * @param function A function from the current value (or <code>null</code>) to the new value.
+	 * @return The new value.
+	 */
+	public synchronized <T> T update(Class<T> type, String key, IFunction1<? super T, ? extends T> function) {
+		final String actual = toKey(type, key);
+		final Path lock = getPath().toAbsolutePath().normalize().resolveSibling(getPath().getFileName().toString() + ".lock");
+		try {
+			synchronized (LOCKS.computeIfAbsent(lock, k -> new Object())) {
+				try (final FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE); final FileLock locked = channel.lock()) {
+					// Pick up the records other processes have written, so that we update the latest value, and appending or compacting doesn't drop them
+					refresh();
+					final T retVal = function.apply(get(type, key));
+					final byte[] bytes = (retVal == null) ? null : getMapper().writeValueAsBytes(retVal);
+					final byte[] record = encode(actual, bytes);
+					if (bytes == null) entries.remove(actual);
+					else entries.put(actual, bytes);
+					append(record);
+					return retVal;
+				}
+			}
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to update %1$s for %2$s in %3$s!", type.getSimpleName(), key, getPath()), exception);
+		}
+	}
+}
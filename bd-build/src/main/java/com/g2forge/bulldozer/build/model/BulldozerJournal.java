@@ -0,0 +1,91 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.g2forge.alexandria.java.io.RuntimeIOException;
+import com.g2forge.alexandria.java.io.file.HFile;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A journal of the steps completed during a long running command, so that it can be resumed after a failure without repeating the ones which completed.
+ * Each step is recorded as soon as it completes, in a {@link BulldozerIndex} log which is flushed to disk on every write. The step which was running when a
+ * command failed or crashed was never recorded, so it is run again from the start on resume, and every step must therefore be safe to repeat after being
+ * stopped part way through.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class BulldozerJournal {
+	/** The directory, under the workspace root, which holds the journals. */
+	public static final String BULLDOZER_JOURNAL = "bulldozer-journal";
+
+	@Data
+	@AllArgsConstructor
+	@RequiredArgsConstructor
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Entry {
+		/** The time the step was completed, in milliseconds since the epoch. */
+		protected long completed;
+	}
+
+	@FunctionalInterface
+	public interface IStep {
+		public void run() throws Exception;
+	}
+
+	/**
+	 * Open a journal, reading the steps which have already been completed.
+	 *
+	 * @param path The path to the journal file.
+	 * @return The journal.
+	 */
+	public static BulldozerJournal open(Path path) {
+		try {
+			Files.createDirectories(path.getParent());
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to create the directory for journal %1$s!", path), exception);
+		}
+		return new BulldozerJournal(BulldozerIndex.open(path));
+	}
+
+	protected final BulldozerIndex index;
+
+	/**
+	 * Delete the journal, once the work it records is complete.
+	 */
+	public synchronized void delete() {
+		HFile.delete(getIndex().getPath(), true);
+	}
+
+	/**
+	 * @param key The key of a step.
+	 * @return <code>true</code> if the step has been completed.
+	 */
+	public boolean isDone(String key) {
+		return getIndex().get(Entry.class, key) != null;
+	}
+
+	/**
+	 * Run a step, unless it has already been completed, and record that it has.
+	 *
+	 * @param key The key of the step, which must identify it including any inputs that would change what it does.
+	 * @param step The step.
+	 * @throws Exception If the step fails.
+	 */
+	public void once(String key, IStep step) throws Exception {
+		if (isDone(key)) {
+			log.info("Skipping {}, which was already done", key);
+			return;
+		}
+		step.run();
+		getIndex().put(Entry.class, key, new Entry(System.currentTimeMillis()));
+	}
+}
@@ -0,0 +1,26 @@
+package com.g2forge.bulldozer.build.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The resolved parent of a POM, as cached by {@link Context#getParent(java.nio.file.Path)}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BulldozerParent {
+	/** A hash of the <code>pom.xml</code> this parent was resolved from, since the parent is entirely determined by it. */
+	protected String hash;
+
+	protected String groupId;
+
+	/** The directory of the parent POM, relative to the workspace root if it's inside the workspace. */
+	protected String basedir;
+}
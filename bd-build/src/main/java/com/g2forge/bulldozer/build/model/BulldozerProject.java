@@ -1,24 +1,39 @@
 package com.g2forge.bulldozer.build.model;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
 
 import com.g2forge.alexandria.java.adt.compare.ComparableComparator;
 import com.g2forge.alexandria.java.adt.compare.MappedComparator;
-import com.g2forge.alexandria.java.adt.tuple.ITuple1G_;
-import com.g2forge.alexandria.java.adt.tuple.ITuple2G_;
-import com.g2forge.alexandria.java.adt.tuple.implementations.Tuple2G_I;
 import com.g2forge.alexandria.java.close.ICloseable;
 import com.g2forge.alexandria.java.core.helpers.HCollection;
 import com.g2forge.alexandria.java.function.IConsumer2;
@@ -31,11 +46,13 @@ import com.g2forge.bulldozer.build.github.GitHubRepositoryID;
 import com.g2forge.bulldozer.build.maven.Descriptor;
 import com.g2forge.bulldozer.build.maven.IMaven;
 import com.g2forge.bulldozer.build.maven.POM;
+import com.g2forge.bulldozer.build.maven.Parent;
 import com.g2forge.bulldozer.build.model.maven.MavenProject;
 import com.g2forge.gearbox.git.GitConfig;
 import com.g2forge.gearbox.git.HGit;
 
 import lombok.AccessLevel;
+import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -44,6 +61,24 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class BulldozerProject implements ICloseable {
+	@Data
+	protected static class ModelHash {
+		protected final String hash;
+
+		protected final Map<Path, FileTime> files;
+
+		public boolean isCurrent() {
+			for (Map.Entry<Path, FileTime> entry : getFiles().entrySet()) {
+				try {
+					if (!entry.getValue().equals(Files.getLastModifiedTime(entry.getKey()))) return false;
+				} catch (IOException exception) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	protected static final String BRANCH_DUMMY = "bulldozer-dummy";
 
 	/**
@@ -67,6 +102,30 @@ public class BulldozerProject implements ICloseable {
 		return null;
 	}
 
+	/**
+	 * Extract the dependencies of a project on other projects from the output of <code>mvn dependency:tree</code>.
+	 * 
+	 * @param name The name of the project whose dependencies are being parsed.
+	 * @param group The group of the project, so that dependencies between modules of the project can be ignored.
+	 * @param dependencyTree The lines of the dependency tree output for this project.
+	 * @param groupToProject A map from groups to the projects in the workspace.
+	 * @return The dependencies of the project.
+	 */
+	protected static BulldozerDependencies parseDependencies(String name, String group, List<String> dependencyTree, Map<String, ? extends BulldozerProject> groupToProject) {
+		final DependenciesCollector collector = new DependenciesCollector(name, group);
+		dependencyTree.stream().filter(line -> {
+			if (!line.startsWith("[INFO]")) return false;
+			for (String projectGroup : groupToProject.keySet()) {
+				if (line.contains("- " + projectGroup)) return true;
+			}
+			return false;
+		}).forEach(line -> {
+			final Descriptor descriptor = Descriptor.fromString(line.substring(line.indexOf("- ") + 2));
+			collector.add(descriptor.getGroupId(), descriptor.getVersion(), line.startsWith("[INFO] \\- ") || line.startsWith("[INFO] +- "));
+		});
+		return collector.build(groupToProject, () -> dependencyTree.stream().collect(Collectors.joining("\n\t")));
+	}
+
 	protected final Context<? extends BulldozerProject> context;
 
 	protected final MavenProject project;
@@ -89,6 +148,10 @@ public class BulldozerProject implements ICloseable {
 	@Getter(lazy = true)
 	private final BulldozerDependencies dependencies = computeDependencies();
 
+	/** The artifacts this project installs, see {@link #computeArtifacts()}. */
+	@Getter(lazy = true)
+	private final List<Path> artifacts = computeArtifacts();
+
 	@Getter(lazy = true)
 	private final String parentGroup = loadTemp(BulldozerTemp::getParentGroup, BulldozerTemp::setParentGroup, () -> computeParentGroup());
 
@@ -98,53 +161,47 @@ public class BulldozerProject implements ICloseable {
 	@Getter(lazy = true, value = AccessLevel.PROTECTED)
 	private final List<AutoCloseable> closeables = new ArrayList<>();
 
+	/**
+	 * The last computed model hash, which is reused as long as none of the files it was computed from have been modified.
+	 */
+	@Getter(AccessLevel.NONE)
+	protected volatile ModelHash modelHash;
+
 	@Override
 	public void close() {
 		HIO.closeAll(getCloseables());
 	}
 
-	protected String computeCommit() {
-		try {
-			return getGit().getRepository().findRef(Constants.HEAD).getObjectId().getName();
-		} catch (IOException exception) {
-			throw new RuntimeIOException(String.format("Failed to determine commit for %1$s!", getName()), exception);
-		}
-	}
-
 	protected BulldozerDependencies computeDependencies() {
-		final Map<String, ? extends BulldozerProject> nameToProject = getContext().getNameToProject();
 		final Map<String, ? extends BulldozerProject> groupToProject = getContext().getGroupToProject();
-		return loadTemp(BulldozerTemp::getDependencies, BulldozerTemp::setDependencies, () -> {
+		// Dependencies are only valid if none of the upstreams have changed since they were computed
+		final IFunction1<BulldozerTemp, BulldozerDependencies> getter = temp -> {
+			final BulldozerDependencies retVal = temp.getDependencies();
+			if ((retVal == null) || (temp.getUpstreams() == null)) return null;
+			if (!temp.getUpstreams().equals(computeUpstreamHashes(retVal))) return null;
+			return retVal;
+		};
+		final IConsumer2<BulldozerTemp, BulldozerDependencies> setter = (temp, dependencies) -> {
+			temp.setDependencies(dependencies);
+			temp.setUpstreams(computeUpstreamHashes(dependencies));
+		};
+		return loadTemp(getter, setter, () -> {
 			final String name = getName();
+			// When configured to, use the results of a single maven run over the whole reactor
+			if (getContext().isDependenciesFromReactor()) {
+				final BulldozerDependencies retVal = getContext().getReactorDependencies().get(name);
+				if (retVal == null) throw new IllegalStateException(String.format("Dependencies for %1$s were not found in the reactor!", name));
+				return retVal;
+			}
+
 			log.info("Loading dependencies for {}", name);
-			// Run maven dependencies and filter the output down to usable information
-			final List<String> dependencyTree = getContext().getMaven().dependencyTree(getDirectory(), true, groupToProject.keySet().stream().map(g -> g + ":*").collect(Collectors.toList())).collect(Collectors.toList());
-			final Map<String, List<ITuple2G_<Descriptor, Boolean>>> grouped = dependencyTree.stream().filter(line -> {
-				if (!line.startsWith("[INFO]")) return false;
-				for (BulldozerProject publicProject : nameToProject.values()) {
-					if (line.contains("- " + publicProject.getGroup())) return true;
-				}
-				return false;
-			}).map(line -> new Tuple2G_I<>(Descriptor.fromString(line.substring(line.indexOf("- ") + 2)), line.startsWith("[INFO] \\- ") || line.startsWith("[INFO] +- "))).filter(t -> !t.get0().getGroupId().equals(nameToProject.get(name).getGroup())).collect(Collectors.groupingBy(t -> t.get0().getGroupId()));
-			// Extract the per-project version and make sure we only ever depend on one version
-			final BulldozerDependencies.BulldozerDependenciesBuilder builder = BulldozerDependencies.builder();
-			for (List<ITuple2G_<Descriptor, Boolean>> tuples : grouped.values()) {
-				// Aside from versions we only have to look at the first tuple, since they're all the same
-				final String group = tuples.get(0).get0().getGroupId();
-
-				final Set<String> versions = tuples.stream().map(ITuple1G_::get0).map(Descriptor::getVersion).collect(Collectors.toSet());
-				final String version = getSingleVersions(versions);
-				if (version == null) throw new IllegalArgumentException(String.format("%3$s depends on multiple versions of the project \"%1$s\": %2$s\n\t%4$s", group, versions, name, dependencyTree.stream().collect(Collectors.joining("\n\t"))));
-				final BulldozerProject dependencyProject = groupToProject.get(group);
-				if (dependencyProject == null) throw new IllegalArgumentException(String.format("%1$s depends on group with unknown project: %2$s", name, group));
-				final String dependency = dependencyProject.getName();
-
-				// If any of the dependencies are immediate, then the project dependency is
-				final boolean immediate = tuples.stream().filter(ITuple2G_::get1).findAny().isPresent();
-				if (immediate) builder.immediate(dependency, version);
-				builder.transitive(dependency, version);
+			final BulldozerDependencies retVal;
+			if (getContext().isDependenciesAsJSON()) retVal = getContext().loadDependencies(getDirectory(), HCollection.emptyList(), HCollection.asList(name), group -> name).get(name);
+			else {
+				// Run maven dependencies and filter the output down to usable information
+				final List<String> dependencyTree = getContext().getMaven().dependencyTree(getDirectory(), true, groupToProject.keySet().stream().map(g -> g + ":*").collect(Collectors.toList())).collect(Collectors.toList());
+				retVal = parseDependencies(name, getGroup(), dependencyTree, groupToProject);
 			}
-			final BulldozerDependencies retVal = builder.build();
 			log.info("Found dependencies for {}: {}", name, retVal.getTransitive().keySet());
 			return retVal;
 		});
@@ -160,19 +217,136 @@ public class BulldozerProject implements ICloseable {
 		return retVal;
 	}
 
+	/**
+	 * Compute a hash of the sources of this project as committed at <code>HEAD</code>, and optionally any changes in the working tree.
+	 * 
+	 * @param include A function from file names to <code>true</code> if the file should be included in the hash.
+	 * @param uncommitted <code>true</code> to include uncommitted changes and untracked files, though never ignored ones.
+	 * @return A hash of the sources.
+	 * @throws IOException If the git repository or the working tree could not be read.
+	 */
+	public String computeSourceHash(IFunction1<? super String, Boolean> include, boolean uncommitted) throws IOException {
+		final Repository repository = getGit().getRepository();
+		final ObjectId head = repository.resolve(Constants.HEAD);
+		final Path workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+		final String prefix = workTree.relativize(getDirectory().toAbsolutePath().normalize()).toString().replace('\\', '/');
+		try (final RevWalk revWalk = new RevWalk(repository); final TreeWalk treeWalk = new TreeWalk(repository)) {
+			treeWalk.addTree(revWalk.parseCommit(head).getTree());
+			treeWalk.setRecursive(true);
+			if (!prefix.isEmpty()) treeWalk.setFilter(PathFilter.create(prefix));
+
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			while (treeWalk.next()) {
+				if (!include.apply(treeWalk.getNameString())) continue;
+				digest.update(treeWalk.getPathString().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				digest.update(treeWalk.getObjectId(0).name().getBytes(StandardCharsets.UTF_8));
+			}
+
+			if (uncommitted) {
+				final StatusCommand command = getGit().status();
+				if (!prefix.isEmpty()) command.addPath(prefix);
+				final Status status;
+				try {
+					status = command.call();
+				} catch (GitAPIException exception) {
+					throw new RuntimeException(String.format("Failed to get the status of %1$s!", getName()), exception);
+				}
+				final Set<String> changed = new TreeSet<>(status.getUncommittedChanges());
+				changed.addAll(status.getUntracked());
+				for (String path : changed) {
+					if (!include.apply(path.substring(path.lastIndexOf('/') + 1))) continue;
+					digest.update(path.getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 1);
+					final Path file = workTree.resolve(path);
+					if (Files.isRegularFile(file)) digest.update(Files.readAllBytes(file));
+				}
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
 	protected String computeGroup() {
-		return loadTemp(BulldozerTemp::getGroup, BulldozerTemp::setGroup, () -> getContext().getMaven().evaluate(getDirectory(), "project.groupId"));
+		return loadTemp(BulldozerTemp::getGroup, BulldozerTemp::setGroup, () -> getContext().getEvaluator().evaluate(getDirectory(), "project.groupId"));
+	}
+
+	/**
+	 * Compute a hash of the POM files which determine the maven model of this project. This includes the POMs of all the modules, including those in
+	 * profiles, and any local parent POMs they reference. Source changes which don't affect the POMs will not change this hash, so metadata keyed on it
+	 * survives unrelated commits, branch switches and rebases.
+	 * 
+	 * @return A hex encoded hash of the POM files for this project.
+	 */
+	public String computeModelHash() {
+		final ModelHash cached = modelHash;
+		if ((cached != null) && cached.isCurrent()) return cached.getHash();
+
+		final Path directory = getDirectory().toAbsolutePath().normalize();
+		final Map<Path, FileTime> files = new LinkedHashMap<>();
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			final Deque<Path> modules = new ArrayDeque<>();
+			modules.add(directory);
+			while (!modules.isEmpty()) {
+				final Path module = modules.removeFirst();
+				final POM pom = hashPOM(digest, directory, module.resolve(HProject.POM), files);
+				if (pom == null) continue;
+
+				final List<String> children = new ArrayList<>();
+				if (pom.getModules() != null) children.addAll(pom.getModules());
+				if (pom.getProfiles() != null) pom.getProfiles().stream().filter(profile -> profile.getModules() != null).forEach(profile -> children.addAll(profile.getModules()));
+				for (String child : children) {
+					final Path childDirectory = module.resolve(child).normalize();
+					if (!files.containsKey(childDirectory.resolve(HProject.POM))) modules.add(childDirectory);
+				}
+
+				// Include the chain of local parents, which may be in other projects
+				Path current = module;
+				Parent parent = pom.getParent();
+				while (parent != null) {
+					final String relativePath = parent.getRelativePath() == null ? "../" + HProject.POM : parent.getRelativePath().trim();
+					if (relativePath.isEmpty()) break;
+					final Path resolved = current.resolve(relativePath).normalize();
+					final Path parentPOM = Files.isDirectory(resolved) ? resolved.resolve(HProject.POM) : resolved;
+					if (files.containsKey(parentPOM)) break;
+					final POM parentModel = hashPOM(digest, directory, parentPOM, files);
+					if (parentModel == null) break;
+					current = parentPOM.getParent();
+					parent = parentModel.getParent();
+				}
+			}
+
+			final String retVal = HexFormat.of().formatHex(digest.digest());
+			modelHash = new ModelHash(retVal, files);
+			return retVal;
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to hash the POM files for %1$s!", getName()), exception);
+		}
+	}
+
+	protected Map<String, String> computeUpstreamHashes(BulldozerDependencies dependencies) {
+		final Map<String, ? extends BulldozerProject> nameToProject = getContext().getNameToProject();
+		final Map<String, String> retVal = new TreeMap<>();
+		for (String upstream : dependencies.getTransitive().keySet()) {
+			final BulldozerProject project = nameToProject.get(upstream);
+			retVal.put(upstream, project == null ? null : project.computeModelHash());
+		}
+		return retVal;
 	}
 
 	protected String computeParentGroup() {
 		final String group = getGroup();
-		final IMaven maven = getContext().getMaven();
 
 		String currentGroup = group;
 		Path currentDirectory = getDirectory();
 		while (currentGroup.equals(group)) {
-			currentGroup = maven.evaluate(currentDirectory, "project.parent.groupId");
-			currentDirectory = Paths.get(maven.evaluate(currentDirectory, "project.parent.basedir"));
+			final BulldozerParent parent = getContext().getParent(currentDirectory);
+			currentGroup = parent.getGroupId();
+			currentDirectory = getContext().getRoot().resolve(parent.getBasedir());
 		}
 		return currentGroup;
 	}
@@ -186,7 +360,52 @@ public class BulldozerProject implements ICloseable {
 	}
 
 	protected String computeVersion() {
-		return loadTemp(BulldozerTemp::getVersion, BulldozerTemp::setVersion, () -> getContext().getMaven().evaluate(getDirectory(), "project.version"));
+		return loadTemp(BulldozerTemp::getVersion, BulldozerTemp::setVersion, () -> getContext().getEvaluator().evaluate(getDirectory(), "project.version"));
+	}
+
+	/**
+	 * Find the artifacts this project installs, by reading the POM of the project and of every module, including the modules of profiles and nested modules.
+	 * 
+	 * @return The directory of each artifact relative to a local maven repository, without the version.
+	 */
+	protected List<Path> computeArtifacts() {
+		try {
+			final List<Path> retVal = new ArrayList<>();
+			for (String content : POM.readModules(getDirectory()).values()) {
+				final POM pom = POM.getXmlMapper().readValue(content, POM.class);
+				// Modules usually inherit their group from their parent
+				final String group = (pom.getGroupId() != null) ? pom.getGroupId() : ((pom.getParent() == null) ? null : pom.getParent().getGroupId());
+				if ((group == null) || (pom.getArtifactId() == null)) continue;
+				Path path = Paths.get("");
+				for (String component : group.split("\\.")) {
+					path = path.resolve(component);
+				}
+				retVal.add(path.resolve(pom.getArtifactId()));
+			}
+			return retVal;
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to read the modules of %1$s!", getName()), exception);
+		}
+	}
+
+	/**
+	 * Get the directories, relative to a local maven repository, which a version of this project is installed in.
+	 * 
+	 * @param version The version of this project.
+	 * @return The install directory of the project itself, and of each of its modules.
+	 */
+	public List<Path> getArtifactDirectories(String version) {
+		return getArtifacts().stream().map(artifact -> artifact.resolve(version)).toList();
+	}
+
+	/**
+	 * Check whether builds of this project may be restored from the build cache. The cache key is computed from the version and dependencies loaded when the
+	 * project is first used, so projects whose POMs are changed during a run must not be cached.
+	 * 
+	 * @return <code>true</code> if builds of this project may be cached.
+	 */
+	public boolean isCacheable() {
+		return true;
 	}
 
 	public String getArtifactId() {
@@ -197,53 +416,70 @@ public class BulldozerProject implements ICloseable {
 		return getArtifactId();
 	}
 
+	/**
+	 * Add a POM file to the model hash.
+	 * 
+	 * @param digest The digest to update.
+	 * @param directory The project directory, so that file names can be made relative.
+	 * @param path The POM file.
+	 * @param files The files which have been hashed so far, and their modification times.
+	 * @return The parsed POM, or <code>null</code> if the file doesn't exist.
+	 * @throws IOException If the file could not be read.
+	 */
+	protected POM hashPOM(MessageDigest digest, Path directory, Path path, Map<Path, FileTime> files) throws IOException {
+		if (!Files.isRegularFile(path)) return null;
+		files.put(path, Files.getLastModifiedTime(path));
+		final byte[] bytes = Files.readAllBytes(path);
+		digest.update(directory.relativize(path).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(bytes);
+		return POM.getXmlMapper().readValue(bytes, POM.class);
+	}
+
 	public <T> T loadTemp(IFunction1<BulldozerTemp, T> getter, IConsumer2<BulldozerTemp, T> setter, ISupplier<T> generator) {
-		final String commit = computeCommit();
-
-		final Path path = getDirectory().resolve(BulldozerTemp.BULLDOZER_TEMP);
-		BulldozerTemp temp = null;
-		if (Files.exists(path)) {
-			try {
-				final BulldozerTemp read = getContext().getObjectMapper().readValue(path.toFile(), BulldozerTemp.class);
-				if (read.isValidForCommit(commit)) temp = read;
-				else Files.delete(path);
-			} catch (IOException exception) {
-				log.warn(String.format("Failed to read bulldozer temp data for %1$s, will regenerate...", getName()));
-			}
-		}
-		if (temp == null) temp = BulldozerTemp.builder().commit(commit).build();
-		final T retVal0 = getter.apply(temp);
+		final String hash = computeModelHash();
+
+		final T retVal0 = getter.apply(readTemp(hash));
 		if (retVal0 != null) return retVal0;
 
+		// Generate the value without holding the index lock, since this can take a long time and other fields may be generated concurrently
 		final T retVal1;
 		try {
 			retVal1 = generator.get();
 		} catch (Throwable throwable) {
 			throw new RuntimeException(String.format("Failed to generate temp data for %1$s!", getName()), throwable);
 		}
-		setter.accept(temp, retVal1);
-		try {
-			getContext().getObjectMapper().writeValue(path.toFile(), temp);
-		} catch (IOException exception) {
-			throw new RuntimeIOException(String.format("Failed to update bulldozer temp data for %1$s!", getName()), exception);
-		}
+		// Update the latest temp data, so that we don't lose any fields which were generated while we were working
+		getContext().getIndex().update(BulldozerTemp.class, getName(), read -> {
+			final BulldozerTemp temp = ((read != null) && read.isValidForHash(hash)) ? read : BulldozerTemp.builder().hash(hash).build();
+			setter.accept(temp, retVal1);
+			return temp;
+		});
 		return retVal1;
 	}
 
+	/**
+	 * Mark the existing temp data as valid for the current POM files, even though they have changed. This is used during a release, where we change the
+	 * versions of upstream projects, but don't want to reload our dependencies.
+	 */
 	public void preserveTemp() {
-		final String commit = computeCommit();
-
-		final Path path = getDirectory().resolve(BulldozerTemp.BULLDOZER_TEMP);
-		if (Files.exists(path)) {
-			try {
-				final BulldozerTemp read = getContext().getObjectMapper().readValue(path.toFile(), BulldozerTemp.class);
-				if (!read.isValidForCommit(commit)) {
-					final BulldozerTemp write = read.toBuilder().otherCommit(commit).build();
-					getContext().getObjectMapper().writeValue(path.toFile(), write);
-				}
-			} catch (IOException exception) {
-				log.warn(String.format("Failed to preserve bulldozer temp data for %1$s, will regenerate later...", getName()));
-			}
+		final String hash = computeModelHash();
+		final BulldozerIndex index = getContext().getIndex();
+		synchronized (index) {
+			final BulldozerTemp read = index.get(BulldozerTemp.class, getName());
+			if ((read != null) && !read.isValidForHash(hash)) index.put(BulldozerTemp.class, getName(), read.toBuilder().otherHash(hash).build());
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Read the temp data for this project from the workspace index, ignoring it if it isn't valid for the specified model hash.
+	 * 
+	 * @param hash The current model hash of this project.
+	 * @return The temp data, or an empty temp data object for the hash if there was no valid data.
+	 */
+	protected BulldozerTemp readTemp(String hash) {
+		final BulldozerTemp read = getContext().getIndex().get(BulldozerTemp.class, getName());
+		if ((read != null) && read.isValidForHash(hash)) return read;
+		return BulldozerTemp.builder().hash(hash).build();
+	}
+}
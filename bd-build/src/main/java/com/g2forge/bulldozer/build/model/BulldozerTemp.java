@@ -1,6 +1,9 @@
 package com.g2forge.bulldozer.build.model;
 
 import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,13 +15,18 @@ import lombok.Singular;
 @Builder(toBuilder = true)
 @AllArgsConstructor
 @RequiredArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class BulldozerTemp {
+	/** The name of the per-project file this data used to be stored in, before it moved to the {@link BulldozerIndex}. */
 	public static final String BULLDOZER_TEMP = "bulldozer-temp.json";
 
-	protected String commit;
+	/**
+	 * A hash of the POM files which determine this data, see {@link BulldozerProject#computeModelHash()}.
+	 */
+	protected String hash;
 
 	@Singular
-	protected List<String> otherCommits;
+	protected List<String> otherHashes;
 
 	protected String group;
 
@@ -26,9 +34,14 @@ public class BulldozerTemp {
 
 	protected BulldozerDependencies dependencies;
 
+	/**
+	 * The model hashes of the upstream projects at the time the {@link #dependencies} were computed, since changes to them can change our dependencies.
+	 */
+	protected Map<String, String> upstreams;
+
 	protected String parentGroup;
 
-	public boolean isValidForCommit(String commit) {
-		return getCommit().equals(commit) || ((getOtherCommits() != null) && getOtherCommits().contains(commit));
+	public boolean isValidForHash(String hash) {
+		return hash.equals(getHash()) || ((getOtherHashes() != null) && getOtherHashes().contains(hash));
 	}
-}
\ No newline at end of file
+}
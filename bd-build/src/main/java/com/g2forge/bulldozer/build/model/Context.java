@@ -1,12 +1,28 @@
 package com.g2forge.bulldozer.build.model;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.TransportConfigCallback;
@@ -16,14 +32,23 @@ import org.kohsuke.github.GitHub;
 import org.kohsuke.github.GitHubBuilder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.g2forge.alexandria.java.core.error.HError;
 import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.fluent.optional.NullableOptional;
+import com.g2forge.alexandria.java.function.IConsumer1;
 import com.g2forge.alexandria.java.function.IFunction1;
 import com.g2forge.alexandria.java.function.IFunction2;
 import com.g2forge.alexandria.java.io.RuntimeIOException;
 import com.g2forge.alexandria.java.project.HProject;
 import com.g2forge.alexandria.wizard.PropertyStringInput;
 import com.g2forge.alexandria.wizard.UserPasswordInput;
+import com.g2forge.bulldozer.build.maven.CachingMaven;
+import com.g2forge.bulldozer.build.maven.DependencyTreeReader;
+import com.g2forge.bulldozer.build.maven.Descriptor;
 import com.g2forge.bulldozer.build.maven.IMaven;
+import com.g2forge.bulldozer.build.maven.POM;
+import com.g2forge.bulldozer.build.maven.POMEvaluator;
+import com.g2forge.bulldozer.build.maven.ProcessMaven;
 import com.g2forge.bulldozer.build.model.maven.MavenProject;
 import com.g2forge.bulldozer.build.model.maven.MavenProjects;
 import com.g2forge.gearbox.command.converter.dumb.DumbCommandConverter;
@@ -31,22 +56,38 @@ import com.g2forge.gearbox.command.process.ProcessBuilderRunner;
 import com.g2forge.gearbox.command.proxy.CommandProxyFactory;
 import com.g2forge.gearbox.git.GitSSHCredentials;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 @Data
 @Builder
 @AllArgsConstructor
+@Slf4j
 public class Context<P extends BulldozerProject> {
+	/**
+	 * Matches the header maven prints when it starts building a module in a reactor, and captures the group and artifact ID.
+	 */
+	protected static final Pattern PATTERN_MODULE = Pattern.compile("\\[INFO\\] -*< ([^:\\s]+):([^\\s]+) >-*");
+
+	/**
+	 * Matches the names of the files maven keeps alongside installed artifacts to track where they came from.
+	 */
+	protected static final Pattern PATTERN_METADATA = Pattern.compile("_remote\\.repositories|resolver-status\\.properties|maven-metadata.*|.*\\.lastUpdated");
+
 	protected final IFunction2<? super Context<P>, ? super MavenProject, ? extends P> constructor;
 
 	@Getter(lazy = true)
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
 	@Getter(lazy = true)
-	private final IMaven maven = new CommandProxyFactory(DumbCommandConverter.create(), new ProcessBuilderRunner()).apply(IMaven.class);
+	private final IMaven maven = computeMaven();
+
+	@Getter(lazy = true)
+	private final POMEvaluator evaluator = new POMEvaluator(getMaven());
 
 	@Getter(lazy = true)
 	private final GitHub github = computeGitHub();
@@ -56,9 +97,55 @@ public class Context<P extends BulldozerProject> {
 
 	protected final Path root;
 
+	/**
+	 * If true, maven goals are run by the long-lived maven daemon (see {@link ProcessMaven}) instead of launching a fresh <code>mvn</code> for each one.
+	 */
+	protected final boolean mavenDaemon = new PropertyStringInput("bulldozer.maven.daemon").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * The maximum number of projects to work on concurrently, which defaults to the number of available processors.
+	 */
+	protected final int parallelism = new PropertyStringInput("bulldozer.parallelism").map(Integer::valueOf).fallback(NullableOptional.of(Runtime.getRuntime().availableProcessors())).get();
+
+	/**
+	 * If true, the dependencies of all projects are found by running a single <code>mvn dependency:tree</code> over the whole reactor, with all the protection
+	 * profiles enabled, instead of running it once per project.
+	 */
+	protected final boolean dependenciesFromReactor = new PropertyStringInput("bulldozer.dependencies.reactor").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * If true, dependency trees are written by maven as JSON and read with a streaming parser, instead of being scraped from the console output.
+	 */
+	protected final boolean dependenciesAsJSON = new PropertyStringInput("bulldozer.dependencies.json").map(Boolean::valueOf).fallback(NullableOptional.of(true)).get();
+
+	/**
+	 * If true, installs and verifies of workspace projects are restored from a content addressed build cache (see {@link CachingMaven}) when their sources,
+	 * POMs and upstream artifacts are the same as a previous build.
+	 */
+	protected final boolean cache = new PropertyStringInput("bulldozer.cache").map(Boolean::valueOf).fallback(NullableOptional.of(false)).get();
+
+	/**
+	 * The local build cache directory.
+	 */
+	protected final Path cacheDirectory = new PropertyStringInput("bulldozer.cache.directory").map(Paths::get).fallback(NullableOptional.of(Paths.get(System.getProperty("user.home"), ".bulldozer", "cache"))).get();
+
+	/**
+	 * A build cache directory shared with other machines, or <code>null</code> to use only the local cache.
+	 */
+	protected final Path cacheShared = new PropertyStringInput("bulldozer.cache.shared").map(Paths::get).fallback(NullableOptional.of(null)).get();
+
+	/**
+	 * The workspace-wide index of cached project metadata, which is read in full the first time it's needed.
+	 */
+	@Getter(lazy = true)
+	private final BulldozerIndex index = BulldozerIndex.open(getRoot().resolve(BulldozerIndex.BULLDOZER_INDEX));
+
 	@Getter(lazy = true)
 	private final Map<String, P> projects = computeProjects();
 
+	@Getter(lazy = true)
+	private final Path localRepository = Paths.get(getMaven().evaluate(getRoot(), "settings.localRepository"));
+
 	@Getter(lazy = true)
 	private final String rootProject = HCollection.getLast(getProjects().keySet());
 
@@ -68,6 +155,18 @@ public class Context<P extends BulldozerProject> {
 	@Getter(lazy = true)
 	private final Map<String, P> groupToProject = getProjects().values().stream().collect(Collectors.toMap(BulldozerProject::getGroup, IFunction1.identity()));
 
+	@Getter(lazy = true)
+	private final Map<String, BulldozerDependencies> reactorDependencies = computeReactorDependencies();
+
+	@Getter(lazy = true)
+	private final BulldozerGraph graph = computeGraph();
+
+	/**
+	 * The resolved parent of each POM directory we've looked at, so that parents shared by many projects are only resolved once per run.
+	 */
+	@Getter(AccessLevel.NONE)
+	protected final Map<Path, BulldozerParent> parents = new ConcurrentHashMap<>();
+
 	protected GitHub computeGitHub() {
 		final String user = new PropertyStringInput("github.user").fallback(new UserPasswordInput("GitHub Username")).get();
 		final String token = new PropertyStringInput("github.token").fallback(new UserPasswordInput("GitHub OAuth Token")).get();
@@ -78,6 +177,47 @@ public class Context<P extends BulldozerProject> {
 		}
 	}
 
+	protected BulldozerGraph computeGraph() {
+		final Collection<P> projects = getProjects().values();
+		final String hash;
+		try {
+			// The graph is valid as long as none of the project models have changed
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (P project : projects) {
+				digest.update(project.getName().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				digest.update(project.computeModelHash().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			hash = HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+
+		final BulldozerGraph cached = getIndex().get(BulldozerGraph.class, BulldozerGraph.KEY);
+		if ((cached != null) && hash.equals(cached.getHash())) return cached;
+
+		log.info("Building the dependency graph of {} projects", projects.size());
+		parallel(projects, BulldozerProject::getDependencies);
+		final Map<String, BulldozerDependencies> dependencies = new LinkedHashMap<>();
+		for (P project : projects) {
+			dependencies.put(project.getName(), project.getDependencies());
+		}
+		final BulldozerGraph retVal = BulldozerGraph.create(hash, dependencies);
+		getIndex().put(BulldozerGraph.class, BulldozerGraph.KEY, retVal);
+		return retVal;
+	}
+
+	protected IMaven computeMaven() {
+		final IMaven retVal;
+		if (isMavenDaemon()) {
+			final String executable = new PropertyStringInput("bulldozer.maven.daemon.executable").fallback(NullableOptional.of("mvnd")).get();
+			retVal = ProcessMaven.create(HCollection.concatenate(HCollection.asList(executable), ProcessMaven.DAEMON_ARGUMENTS));
+		} else retVal = new CommandProxyFactory(DumbCommandConverter.create(), new ProcessBuilderRunner()).apply(IMaven.class);
+		if (isCache()) return new CachingMaven(retVal, this::describeBuild, getCacheDirectory(), getCacheShared());
+		return retVal;
+	}
+
 	protected final Map<String, P> computeProjects() {
 		final Map<String, P> retVal = new LinkedHashMap<>();
 		for (MavenProject mavenProject : new MavenProjects(getRoot().resolve(HProject.POM)).getProjects()) {
@@ -87,12 +227,164 @@ public class Context<P extends BulldozerProject> {
 		return retVal;
 	}
 
+	protected Map<String, BulldozerDependencies> computeReactorDependencies() {
+		final Map<String, P> groupToProject = getGroupToProject();
+		log.info("Loading dependencies for all projects from the reactor");
+		if (isDependenciesAsJSON()) {
+			final Map<String, BulldozerDependencies> retVal = loadDependencies(getRoot(), MavenProject.PROFILES_PROTECTED, getProjects().keySet(), group -> {
+				final P project = groupToProject.get(group);
+				return (project == null) ? null : project.getName();
+			});
+			retVal.forEach((name, dependencies) -> log.info("Found dependencies for {}: {}", name, dependencies.getTransitive().keySet()));
+			return retVal;
+		}
+
+		final List<String> output = getMaven().dependencyTree(getRoot(), true, MavenProject.PROFILES_PROTECTED, groupToProject.keySet().stream().map(g -> g + ":*").collect(Collectors.toList())).collect(Collectors.toList());
+
+		// Split the output by module, and then group the modules by project
+		final Map<String, List<String>> nameToLines = new LinkedHashMap<>();
+		getProjects().keySet().forEach(name -> nameToLines.put(name, new ArrayList<>()));
+		List<String> current = null;
+		for (String line : output) {
+			final Matcher matcher = PATTERN_MODULE.matcher(line);
+			if (matcher.matches()) {
+				final P project = groupToProject.get(matcher.group(1));
+				current = (project == null) ? null : nameToLines.get(project.getName());
+			} else if (current != null) current.add(line);
+		}
+
+		final Map<String, BulldozerDependencies> retVal = new LinkedHashMap<>();
+		for (Map.Entry<String, List<String>> entry : nameToLines.entrySet()) {
+			final String name = entry.getKey();
+			final BulldozerDependencies dependencies = BulldozerProject.parseDependencies(name, getProjects().get(name).getGroup(), entry.getValue(), groupToProject);
+			log.info("Found dependencies for {}: {}", name, dependencies.getTransitive().keySet());
+			retVal.put(name, dependencies);
+		}
+		return retVal;
+	}
+
+	/**
+	 * Run <code>mvn dependency:tree</code> with verbose JSON output, and stream the result to find the dependencies of each project on the other projects.
+	 * The verbose tree includes the versions maven omitted in favor of another, so depending on two versions of a project is still reported as an error.
+	 * 
+	 * @param directory The directory to run maven in.
+	 * @param profiles The maven profiles to enable.
+	 * @param names The names of the projects whose dependencies we expect to find.
+	 * @param moduleGroupToName A function from the group of each module in the output to the name of the project it belongs to, or <code>null</code> if the
+	 *            module should be ignored.
+	 * @return A map from project names to dependencies.
+	 */
+	public Map<String, BulldozerDependencies> loadDependencies(Path directory, List<String> profiles, Collection<String> names, IFunction1<? super String, ? extends String> moduleGroupToName) {
+		final Map<String, P> groupToProject = getGroupToProject();
+		final Map<String, DependenciesCollector> collectors = new LinkedHashMap<>();
+		for (String name : names) {
+			collectors.put(name, new DependenciesCollector(name, getNameToProject().get(name).getGroup()));
+		}
+
+		final Path output;
+		try {
+			output = Files.createTempFile("bulldozer-dependencies", ".json");
+		} catch (IOException exception) {
+			throw new RuntimeIOException("Failed to create temporary file for dependencies!", exception);
+		}
+		try {
+			// Maven output is only interesting when debugging, everything we need is in the JSON
+			getMaven().dependencyTreeJSON(directory, profiles, groupToProject.keySet().stream().map(g -> g + ":*").collect(Collectors.toList()), output.toString()).forEach(log::debug);
+			DependencyTreeReader.read(output, new DependencyTreeReader.IVisitor() {
+				protected DependenciesCollector current;
+
+				@Override
+				public void node(int depth, Descriptor descriptor) {
+					if (depth == 0) {
+						final String name = moduleGroupToName.apply(descriptor.getGroupId());
+						current = (name == null) ? null : collectors.get(name);
+					} else if ((current != null) && groupToProject.containsKey(descriptor.getGroupId())) current.add(descriptor.getGroupId(), descriptor.getVersion(), depth == 1);
+				}
+			});
+
+			final Map<String, BulldozerDependencies> retVal = new LinkedHashMap<>();
+			for (DependenciesCollector collector : collectors.values()) {
+				retVal.put(collector.getName(), collector.build(groupToProject, () -> {
+					try {
+						return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+					} catch (IOException exception) {
+						return String.format("Dependency tree could not be read from %1$s: %2$s", output, exception);
+					}
+				}));
+			}
+			return retVal;
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to read dependencies from %1$s!", directory), exception);
+		} finally {
+			try {
+				Files.deleteIfExists(output);
+			} catch (IOException exception) {
+				log.warn(String.format("Failed to delete temporary dependency tree %1$s", output));
+			}
+		}
+	}
+
 	protected TransportConfigCallback computeTransportConfig() {
 		final String key = new PropertyStringInput("ssh.key.file").fallback(new UserPasswordInput("SSH Key File")).get();
 		final String passphrase = new PropertyStringInput("ssh.key.passphrase").fallback(new UserPasswordInput(String.format("SSH Passphrase for %1$s", key))).get();
 		return new GitSSHCredentials(Paths.get(key), passphrase).createTransportConfigCallback();
 	}
 
+	/**
+	 * Describe the build of a project for the {@link CachingMaven build cache}. The key covers the sources of the project including uncommitted changes, its
+	 * POMs and local parent POMs, and the installed artifacts of the versions of its upstreams it resolves.
+	 * 
+	 * @param directory The directory maven will be run in.
+	 * @return The description of the build, or <code>null</code> if the directory isn't one of our projects or the project can't be cached.
+	 */
+	protected CachingMaven.Entry describeBuild(Path directory) {
+		final Path normalized = directory.toAbsolutePath().normalize();
+		final P project = getProjects().values().stream().filter(p -> p.getDirectory().toAbsolutePath().normalize().equals(normalized)).findFirst().orElse(null);
+		if ((project == null) || !project.isCacheable()) return null;
+
+		final Path repository = getLocalRepository();
+		try {
+			// The version and dependencies are loaded once per run, so don't trust them if the version in the POM has been changed since
+			final String version = POM.getXmlMapper().readValue(project.getDirectory().resolve(HProject.POM).toFile(), POM.class).getVersion();
+			if ((version != null) && !version.equals(project.getVersion())) {
+				log.info("Not using the build cache for {}, since its version has changed from {} to {}", project.getName(), project.getVersion(), version);
+				return null;
+			}
+
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String string : HCollection.asList(project.getName(), project.getGroup(), project.getVersion(), project.computeModelHash(), project.computeSourceHash(filename -> true, true))) {
+				digest.update(string.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			for (Map.Entry<String, String> upstream : new TreeMap<>(project.getDependencies().getTransitive()).entrySet()) {
+				final P upstreamProject = getNameToProject().get(upstream.getKey());
+				if (upstreamProject == null) continue;
+				digest.update((upstream.getKey() + ':' + upstream.getValue()).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				for (Path artifact : upstreamProject.getArtifactDirectories(upstream.getValue())) {
+					final Path installed = repository.resolve(artifact);
+					if (!Files.isDirectory(installed)) continue;
+					try (final Stream<Path> stream = Files.walk(installed)) {
+						for (Path file : (Iterable<Path>) stream.filter(Files::isRegularFile).sorted()::iterator) {
+							// Skip the metadata maven rewrites whenever it resolves or installs, so that only the artifacts themselves matter
+							if (PATTERN_METADATA.matcher(file.getFileName().toString()).matches()) continue;
+							digest.update(repository.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+							digest.update((byte) 0);
+							digest.update(Files.readAllBytes(file));
+						}
+					}
+				}
+			}
+			final CachingMaven.Entry.EntryBuilder retVal = CachingMaven.Entry.builder().key(HexFormat.of().formatHex(digest.digest())).repository(repository);
+			project.getArtifactDirectories(project.getVersion()).forEach(retVal::artifact);
+			return retVal.build();
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		} catch (IOException exception) {
+			throw new RuntimeIOException(String.format("Failed to compute the build cache key for %1$s!", project.getName()), exception);
+		}
+	}
+
 	public void failIfDirty() {
 		final List<BulldozerProject> dirty = getProjects().values().stream().filter(project -> {
 			try {
@@ -104,4 +396,80 @@ public class Context<P extends BulldozerProject> {
 		}).collect(Collectors.toList());
 		if (!dirty.isEmpty()) throw new IllegalStateException(String.format("One or more projects were dirty (%1$s), please commit changes and try again!", dirty.stream().map(BulldozerProject::getName).collect(Collectors.joining(", "))));
 	}
+
+	/**
+	 * Get the parent of the POM in the specified directory. Parents are cached for the run, and persisted in the {@link #getIndex() index} keyed on a hash of
+	 * the POM so they survive until it changes.
+	 * 
+	 * @param directory The directory containing the <code>pom.xml</code>.
+	 * @return The resolved parent.
+	 */
+	public BulldozerParent getParent(Path directory) {
+		final Path root = getRoot().toAbsolutePath().normalize();
+		return parents.computeIfAbsent(directory.toAbsolutePath().normalize(), normalized -> {
+			final String key = normalized.startsWith(root) ? root.relativize(normalized).toString().replace('\\', '/') : normalized.toString();
+			final String hash;
+			try {
+				hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(normalized.resolve(HProject.POM))));
+			} catch (NoSuchAlgorithmException exception) {
+				throw new RuntimeException(exception);
+			} catch (IOException exception) {
+				throw new RuntimeIOException(String.format("Failed to read %1$s in %2$s!", HProject.POM, normalized), exception);
+			}
+
+			final BulldozerParent cached = getIndex().get(BulldozerParent.class, key);
+			if ((cached != null) && hash.equals(cached.getHash())) return cached;
+
+			final POMEvaluator evaluator = getEvaluator();
+			final Path basedir = Paths.get(evaluator.evaluate(normalized, "project.parent.basedir")).toAbsolutePath().normalize();
+			final BulldozerParent retVal = BulldozerParent.builder().hash(hash).groupId(evaluator.evaluate(normalized, "project.parent.groupId")).basedir(basedir.startsWith(root) ? root.relativize(basedir).toString().replace('\\', '/') : basedir.toString()).build();
+			getIndex().put(BulldozerParent.class, key, retVal);
+			return retVal;
+		});
+	}
+
+	/**
+	 * Run the consumer on each item using a worker pool bounded by {@link #getParallelism()}, and wait for them all to complete. Any failures are collected
+	 * and thrown together once all the items have been processed.
+	 * 
+	 * @param items The items to process.
+	 * @param consumer The work to perform on each item.
+	 */
+	public <T> void parallel(Collection<? extends T> items, IConsumer1<? super T> consumer) {
+		if (items.isEmpty()) return;
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(getParallelism(), items.size())));
+		try {
+			final List<Future<?>> futures = items.stream().map(item -> executor.submit(() -> consumer.accept(item))).collect(Collectors.toList());
+			final List<Throwable> throwables = new ArrayList<>();
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException exception) {
+					throwables.add(exception.getCause());
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while waiting for parallel work!", exception);
+				}
+			}
+			if (!throwables.isEmpty()) throw HError.withSuppressed(new RuntimeException("Parallel work failed!"), throwables);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Load the metadata for all the projects concurrently, so that it's ready before we need it. Groups and versions are loaded first, since the dependency
+	 * analysis needs the groups of all the projects.
+	 */
+	public void preload() {
+		final Collection<P> projects = getProjects().values();
+		log.info("Loading metadata for {} projects using {} workers", projects.size(), getParallelism());
+		getIndex();
+		parallel(projects, project -> {
+			project.getGroup();
+			project.getVersion();
+		});
+		getGroupToProject();
+		getGraph();
+	}
 }
@@ -0,0 +1,260 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.g2forge.alexandria.java.core.error.HError;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs a task for each node in a directed acyclic graph, starting each node as soon as all the nodes it depends on have completed. Independent nodes run
+ * concurrently, up to the parallelism. When more nodes are ready than can be run, the ones with the longest chain of work after them, as estimated from the
+ * {@link #cost(Object, long) costs}, are started first. When a task fails no new tasks are started, the ones already running are allowed to finish, and then
+ * all the failures are thrown together. When the calling thread is interrupted, the running tasks are interrupted, and {@link #run(ITask)} still waits for
+ * them to finish before it returns.
+ *
+ * @param <N> The type of the nodes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DAGExecutor<N> {
+	@FunctionalInterface
+	public interface ITask<N> {
+		public void run(N node) throws Exception;
+	}
+
+	/**
+	 * The predicted schedule for a graph, see {@link DAGExecutor#plan()}.
+	 *
+	 * @param <N> The type of the nodes.
+	 */
+	@Data
+	@AllArgsConstructor
+	public static class Plan<N> {
+		/** The predicted time from starting the first node to finishing the last one. */
+		protected final long makespan;
+
+		/** The longest chain of dependent nodes, which bounds the makespan no matter how much parallelism is available. */
+		protected final List<N> criticalPath;
+	}
+
+	protected final int parallelism;
+
+	/** The nodes, in the order they were added, and the nodes each one depends on. */
+	protected final Map<N, Set<N>> dependencies = new LinkedHashMap<>();
+
+	/** The estimated cost of each node, in whatever unit the caller likes. Nodes without a cost are assumed to be free. */
+	protected final Map<N, Long> costs = new LinkedHashMap<>();
+
+	/**
+	 * Set the estimated cost of running a node, which is used to prioritize nodes on the critical path.
+	 *
+	 * @param node The node.
+	 * @param cost The estimated cost.
+	 * @return This executor.
+	 */
+	public DAGExecutor<N> cost(N node, long cost) {
+		getCosts().put(node, cost);
+		return this;
+	}
+
+	/**
+	 * Compute the priority of each node, which is the cost of the longest chain of nodes starting with it.
+	 *
+	 * @return The priority of each node.
+	 */
+	protected Map<N, Long> computePriorities() {
+		final Map<N, List<N>> dependents = computeDependents();
+		final Map<N, Long> retVal = new LinkedHashMap<>();
+		// Visit the nodes in reverse dependency order, so each node's dependents are done first
+		final Map<N, Integer> remaining = new LinkedHashMap<>();
+		final Deque<N> ready = new ArrayDeque<>();
+		for (N node : getDependencies().keySet()) {
+			final int count = dependents.getOrDefault(node, HCollection.emptyList()).size();
+			remaining.put(node, count);
+			if (count == 0) ready.add(node);
+		}
+		while (!ready.isEmpty()) {
+			final N node = ready.removeFirst();
+			long longest = 0;
+			for (N dependent : dependents.getOrDefault(node, HCollection.emptyList())) {
+				longest = Math.max(longest, retVal.get(dependent));
+			}
+			retVal.put(node, getCosts().getOrDefault(node, 0L) + longest);
+			for (N dependency : getDependencies().get(node)) {
+				if (remaining.merge(dependency, -1, Integer::sum) == 0) ready.add(dependency);
+			}
+		}
+		// Nodes in a cycle are never visited, the cycle is reported when the graph is run
+		for (N node : getDependencies().keySet()) {
+			retVal.putIfAbsent(node, getCosts().getOrDefault(node, 0L));
+		}
+		return retVal;
+	}
+
+	protected Map<N, List<N>> computeDependents() {
+		final Map<N, List<N>> retVal = new LinkedHashMap<>();
+		for (Map.Entry<N, Set<N>> entry : getDependencies().entrySet()) {
+			for (N dependency : entry.getValue()) {
+				retVal.computeIfAbsent(dependency, n -> new ArrayList<>()).add(entry.getKey());
+			}
+		}
+		return retVal;
+	}
+
+	protected Comparator<N> createComparator(Map<N, Long> priorities) {
+		final Map<N, Integer> order = new HashMap<>();
+		for (N node : getDependencies().keySet()) {
+			order.put(node, order.size());
+		}
+		return Comparator.<N, Long>comparing(priorities::get).reversed().thenComparing(order::get);
+	}
+
+	/**
+	 * Add a node to the graph, or add dependencies to an existing node.
+	 *
+	 * @param node The node.
+	 * @param dependencies The nodes which must complete before this one can start. They are added to the graph if needed.
+	 * @return This executor.
+	 */
+	public DAGExecutor<N> node(N node, Collection<? extends N> dependencies) {
+		getDependencies().computeIfAbsent(node, n -> new LinkedHashSet<>()).addAll(dependencies);
+		for (N dependency : dependencies) {
+			getDependencies().computeIfAbsent(dependency, n -> new LinkedHashSet<>());
+		}
+		return this;
+	}
+
+	/**
+	 * Predict how long it will take to run the graph, by simulating the schedule with the {@link #cost(Object, long) costs} and the parallelism.
+	 *
+	 * @return The predicted schedule.
+	 */
+	public Plan<N> plan() {
+		final Map<N, Long> priorities = computePriorities();
+		final Map<N, List<N>> dependents = computeDependents();
+
+		final List<N> criticalPath = new ArrayList<>();
+		{ // Follow the highest priority node from the roots down
+			N current = getDependencies().entrySet().stream().filter(entry -> entry.getValue().isEmpty()).map(Map.Entry::getKey).max(Comparator.comparing(priorities::get)).orElse(null);
+			while (current != null) {
+				criticalPath.add(current);
+				current = dependents.getOrDefault(current, HCollection.emptyList()).stream().max(Comparator.comparing(priorities::get)).orElse(null);
+			}
+		}
+
+		final Map<N, Integer> remaining = new LinkedHashMap<>();
+		final PriorityQueue<N> ready = new PriorityQueue<>(createComparator(priorities));
+		for (Map.Entry<N, Set<N>> entry : getDependencies().entrySet()) {
+			remaining.put(entry.getKey(), entry.getValue().size());
+			if (entry.getValue().isEmpty()) ready.add(entry.getKey());
+		}
+		final PriorityQueue<Map.Entry<N, Long>> running = new PriorityQueue<>(Map.Entry.comparingByValue());
+		long time = 0;
+		while (!ready.isEmpty() || !running.isEmpty()) {
+			while (!ready.isEmpty() && (running.size() < Math.max(1, getParallelism()))) {
+				final N node = ready.poll();
+				running.add(new AbstractMap.SimpleEntry<>(node, time + getCosts().getOrDefault(node, 0L)));
+			}
+			final Map.Entry<N, Long> finished = running.poll();
+			time = finished.getValue();
+			for (N dependent : dependents.getOrDefault(finished.getKey(), HCollection.emptyList())) {
+				if (remaining.merge(dependent, -1, Integer::sum) == 0) ready.add(dependent);
+			}
+		}
+		return new Plan<>(time, criticalPath);
+	}
+
+	/**
+	 * Run the task for every node in the graph.
+	 *
+	 * @param task The task to run for each node.
+	 */
+	public void run(ITask<? super N> task) {
+		final Map<N, Integer> remaining = new LinkedHashMap<>();
+		final Map<N, List<N>> dependents = computeDependents();
+		final PriorityQueue<N> ready = new PriorityQueue<>(createComparator(computePriorities()));
+		for (Map.Entry<N, Set<N>> entry : getDependencies().entrySet()) {
+			remaining.put(entry.getKey(), entry.getValue().size());
+			if (entry.getValue().isEmpty()) ready.add(entry.getKey());
+		}
+		if (remaining.isEmpty()) return;
+
+		final int threads = Math.max(1, Math.min(getParallelism(), remaining.size()));
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final CompletionService<N> completion = new ExecutorCompletionService<>(executor);
+			final List<Throwable> throwables = new ArrayList<>();
+			int running = 0, completed = 0;
+			while (true) {
+				if (throwables.isEmpty()) {
+					// Only start as many nodes as there are threads, so that the ready nodes stay in priority order
+					while (!ready.isEmpty() && (running < threads)) {
+						final N node = ready.poll();
+						completion.submit(() -> {
+							task.run(node);
+							return node;
+						});
+						running++;
+					}
+				}
+				if (running == 0) break;
+
+				try {
+					final N node = completion.take().get();
+					completed++;
+					for (N dependent : dependents.getOrDefault(node, HCollection.emptyList())) {
+						if (remaining.merge(dependent, -1, Integer::sum) == 0) ready.add(dependent);
+					}
+				} catch (ExecutionException exception) {
+					throwables.add(exception.getCause());
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while waiting for scheduled work!", exception);
+				} finally {
+					running--;
+				}
+			}
+
+			if (!throwables.isEmpty()) throw HError.withSuppressed(new RuntimeException("Scheduled work failed!"), throwables);
+			if (completed < remaining.size()) {
+				final List<N> blocked = remaining.entrySet().stream().filter(entry -> entry.getValue() > 0).map(Map.Entry::getKey).toList();
+				throw new IllegalStateException(String.format("Dependency cycle between %1$s!", blocked));
+			}
+		} finally {
+			executor.shutdownNow();
+			// Wait for the running tasks even if we were interrupted, since a task which ignores the interrupt must not outlive the run
+			boolean interrupted = Thread.interrupted();
+			while (true) {
+				try {
+					if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) break;
+				} catch (InterruptedException exception) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.g2forge.alexandria.java.function.ISupplier;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Accumulates the dependencies of one project on other projects as they're found in the output of <code>mvn dependency:tree</code>, so that the whole tree
+ * never needs to be held in memory.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DependenciesCollector {
+	protected final String name;
+
+	protected final String group;
+
+	protected final Map<String, Set<String>> versions = new LinkedHashMap<>();
+
+	protected final Set<String> immediate = new HashSet<>();
+
+	/**
+	 * Record a dependency on an artifact in another project. Dependencies within this project are ignored.
+	 * 
+	 * @param dependencyGroup The group of the artifact.
+	 * @param version The version of the artifact.
+	 * @param immediate <code>true</code> if this project depends on the artifact directly.
+	 */
+	public void add(String dependencyGroup, String version, boolean immediate) {
+		if (dependencyGroup.equals(getGroup())) return;
+		getVersions().computeIfAbsent(dependencyGroup, g -> new LinkedHashSet<>()).add(version);
+		if (immediate) getImmediate().add(dependencyGroup);
+	}
+
+	/**
+	 * Build the dependencies of this project, making sure we only ever depend on one version of each project.
+	 * 
+	 * @param groupToProject A map from groups to the projects in the workspace.
+	 * @param details A supplier for the full dependency tree, which is only used to report errors.
+	 * @return The dependencies of this project.
+	 */
+	public BulldozerDependencies build(Map<String, ? extends BulldozerProject> groupToProject, ISupplier<String> details) {
+		final BulldozerDependencies.BulldozerDependenciesBuilder builder = BulldozerDependencies.builder();
+		for (Map.Entry<String, Set<String>> entry : getVersions().entrySet()) {
+			final String dependencyGroup = entry.getKey();
+			final Set<String> versions = entry.getValue();
+			final String version = BulldozerProject.getSingleVersions(versions);
+			if (version == null) throw new IllegalArgumentException(String.format("%3$s depends on multiple versions of the project \"%1$s\": %2$s\n\t%4$s", dependencyGroup, versions, getName(), details.get()));
+			final BulldozerProject dependencyProject = groupToProject.get(dependencyGroup);
+			if (dependencyProject == null) throw new IllegalArgumentException(String.format("%1$s depends on group with unknown project: %2$s", getName(), dependencyGroup));
+			final String dependency = dependencyProject.getName();
+
+			// If any of the dependencies are immediate, then the project dependency is
+			if (getImmediate().contains(dependencyGroup)) builder.immediate(dependency, version);
+			builder.transitive(dependency, version);
+		}
+		return builder.build();
+	}
+}
@@ -1,6 +1,9 @@
 package com.g2forge.bulldozer.build.model.maven;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +19,11 @@ public class MavenProject {
 		Sandbox
 	}
 
+	/**
+	 * The names of the maven profiles which enable the modules for non-public projects.
+	 */
+	public static final List<String> PROFILES_PROTECTED = Stream.of(MavenProject.Protection.values()).filter(p -> !MavenProject.Protection.Public.equals(p)).map(p -> p.name().toLowerCase()).collect(Collectors.toList());
+
 	protected final Path relative;
 
 	protected final MavenProject.Protection protection;
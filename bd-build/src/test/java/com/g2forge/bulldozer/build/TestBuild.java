@@ -0,0 +1,43 @@
+package com.g2forge.bulldozer.build;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestBuild {
+	protected static final Map<String, Set<String>> UPSTREAMS = Map.of("lib", HCollection.asSet(), "app", HCollection.asSet("lib"));
+
+	@Test
+	public void notBuilt() {
+		final Map<String, String> before = Build.computeBuildHashes(HCollection.asSet("app"), Map.of("app", "app1"), UPSTREAMS::get, name -> null);
+		final Map<String, String> after = Build.computeBuildHashes(HCollection.asSet("app"), Map.of("app", "app1"), UPSTREAMS::get, name -> "lib");
+		Assert.assertNotEquals(before.get("app"), after.get("app"));
+	}
+
+	@Test
+	public void staleUpstream() {
+		final Map<String, String> recorded = new HashMap<>();
+		recorded.putAll(Build.computeBuildHashes(HCollection.asSet("lib", "app"), Map.of("lib", "lib1", "app", "app1"), UPSTREAMS::get, recorded::get));
+
+		// Changing lib and building only app builds against the installed lib, so app is still up to date
+		Assert.assertEquals(recorded.get("app"), Build.computeBuildHashes(HCollection.asSet("app"), Map.of("app", "app1"), UPSTREAMS::get, recorded::get).get("app"));
+
+		// Once the new lib is built, app must be built again
+		final Map<String, String> lib = Build.computeBuildHashes(HCollection.asSet("lib"), Map.of("lib", "lib2"), UPSTREAMS::get, recorded::get);
+		Assert.assertNotEquals(recorded.get("lib"), lib.get("lib"));
+		recorded.putAll(lib);
+		Assert.assertNotEquals(recorded.get("app"), Build.computeBuildHashes(HCollection.asSet("app"), Map.of("app", "app1"), UPSTREAMS::get, recorded::get).get("app"));
+	}
+
+	@Test
+	public void selectedUpstream() {
+		final Map<String, String> first = Build.computeBuildHashes(HCollection.asSet("lib", "app"), Map.of("lib", "lib1", "app", "app1"), UPSTREAMS::get, name -> null);
+		final Map<String, String> second = Build.computeBuildHashes(HCollection.asSet("lib", "app"), Map.of("lib", "lib2", "app", "app1"), UPSTREAMS::get, name -> null);
+		Assert.assertNotEquals(first.get("app"), second.get("app"));
+	}
+}
@@ -0,0 +1,75 @@
+package com.g2forge.bulldozer.build;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestImpact {
+	protected static final Path ROOT = Paths.get("workspace").toAbsolutePath().normalize();
+
+	protected static Map<Path, String> createDirectories() {
+		final Map<Path, String> retVal = new LinkedHashMap<>();
+		retVal.put(ROOT.resolve("repo"), "repo");
+		retVal.put(ROOT.resolve("repo").resolve("nested"), "nested");
+		return retVal;
+	}
+
+	@Test
+	public void owner() {
+		Assert.assertEquals("repo", Impact.owner(ROOT.resolve("repo/src/main/java/A.java"), createDirectories()));
+		Assert.assertEquals("nested", Impact.owner(ROOT.resolve("repo/nested/pom.xml"), createDirectories()));
+		Assert.assertEquals("repo", Impact.owner(ROOT.resolve("repo/nested-other/pom.xml"), createDirectories()));
+		Assert.assertNull(Impact.owner(ROOT.resolve("other/pom.xml"), createDirectories()));
+	}
+
+	@Test
+	public void ownerNormalized() {
+		Assert.assertEquals("repo", Impact.owner(ROOT.resolve("repo/nested/../src/A.java").normalize(), createDirectories()));
+	}
+
+	@Test
+	public void range() {
+		Assert.assertEquals("main..HEAD", Impact.parseRange(HCollection.asList("a=v1", "main..HEAD")));
+		Assert.assertNull(Impact.parseRange(HCollection.asList("a=v1")));
+		Assert.assertNull(Impact.parseRange(HCollection.emptyList()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rangeMultiple() {
+		Impact.parseRange(HCollection.asList("main", "HEAD"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rangeMergeBase() {
+		Impact.parseRange(HCollection.asList("main...HEAD"));
+	}
+
+	@Test
+	public void ranges() {
+		Assert.assertEquals(Map.of("a", "v1..v2", ".", "HEAD~1"), Impact.parseRanges(HCollection.asList("a=v1..v2", "main", ".=HEAD~1")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rangesDuplicate() {
+		Impact.parseRanges(HCollection.asList("a=v1", "a=v2"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rangesMergeBase() {
+		Impact.parseRanges(HCollection.asList("a=v1...v2"));
+	}
+
+	@Test
+	public void repository() {
+		Assert.assertEquals("repo", Impact.repository(Paths.get("repo", "nested")));
+		Assert.assertEquals("repo", Impact.repository(Paths.get("repo")));
+		Assert.assertEquals(Impact.REPOSITORY_ROOT, Impact.repository(Paths.get("")));
+		Assert.assertEquals(Impact.REPOSITORY_ROOT, Impact.repository(Paths.get(".")));
+	}
+}
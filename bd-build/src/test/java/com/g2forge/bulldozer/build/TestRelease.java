@@ -0,0 +1,54 @@
+package com.g2forge.bulldozer.build;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.bulldozer.build.Release.Phase;
+import com.g2forge.bulldozer.build.Release.Step;
+import com.g2forge.bulldozer.build.model.BulldozerDependencies;
+import com.g2forge.bulldozer.build.model.BulldozerGraph;
+import com.g2forge.bulldozer.build.model.DAGExecutor;
+
+public class TestRelease {
+	protected static BulldozerGraph createGraph() {
+		final Map<String, BulldozerDependencies> dependencies = new LinkedHashMap<>();
+		dependencies.put("lib", BulldozerDependencies.builder().build());
+		dependencies.put("app", BulldozerDependencies.builder().transitive("lib", "1.0.0").immediate("lib", "1.0.0").build());
+		dependencies.put("unreleased", BulldozerDependencies.builder().transitive("lib", "1.0.0").immediate("lib", "1.0.0").build());
+		return BulldozerGraph.create("hash", dependencies);
+	}
+
+	protected static Set<Step> dependencies(DAGExecutor<Step> executor, String name, Phase phase) {
+		return executor.getDependencies().get(new Step(name, phase));
+	}
+
+	@Test
+	public void installedDevelopment() {
+		final DAGExecutor<Step> executor = Release.schedule(HCollection.asList("lib", "app"), createGraph(), false, 1);
+		// The upstream can restart development as soon as the downstream has been prepared and installed against it, without waiting for the deploy
+		Assert.assertEquals(HCollection.asSet(new Step("lib", Phase.Released), new Step("app", Phase.UpdatedDownstreams)), dependencies(executor, "lib", Phase.InstalledDevelopment));
+		Assert.assertEquals(HCollection.asSet(new Step("app", Phase.Released), new Step("lib", Phase.InstalledDevelopment)), dependencies(executor, "app", Phase.InstalledDevelopment));
+	}
+
+	@Test
+	public void order() {
+		final DAGExecutor<Step> executor = Release.schedule(HCollection.asList("lib", "app"), createGraph(), false, 1);
+		Assert.assertEquals(HCollection.asSet(new Step("app", Phase.Verified), new Step("lib", Phase.UpdatedDownstreams)), dependencies(executor, "app", Phase.Prepared));
+		Assert.assertEquals(HCollection.asSet(new Step("app", Phase.UpdatedDownstreams), new Step("lib", Phase.Released)), dependencies(executor, "app", Phase.Released));
+		Assert.assertEquals(HCollection.asSet(), dependencies(executor, "app", Phase.Verified));
+		// Only the projects being released are scheduled
+		Assert.assertFalse(executor.getDependencies().keySet().stream().anyMatch(step -> step.getName().equals("unreleased")));
+	}
+
+	@Test
+	public void speculative() {
+		final DAGExecutor<Step> executor = Release.schedule(HCollection.asList("lib", "app"), createGraph(), true, 1);
+		Assert.assertEquals(HCollection.asSet(new Step("app", Phase.Verified), new Step("lib", Phase.Speculated)), dependencies(executor, "app", Phase.Speculated));
+		Assert.assertEquals(HCollection.asSet(new Step("app", Phase.Speculated), new Step("app", Phase.Verified), new Step("lib", Phase.UpdatedDownstreams)), dependencies(executor, "app", Phase.Prepared));
+	}
+}
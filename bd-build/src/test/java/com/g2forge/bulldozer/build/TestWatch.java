@@ -0,0 +1,122 @@
+package com.g2forge.bulldozer.build;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.bulldozer.build.model.BulldozerDependencies;
+import com.g2forge.bulldozer.build.model.BulldozerGraph;
+import com.g2forge.bulldozer.build.model.BulldozerProject;
+import com.g2forge.bulldozer.build.model.Context;
+
+public class TestWatch {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	protected final Watch watch = new Watch(null);
+
+	@Test(timeout = 30000)
+	public void cancel() throws Throwable {
+		Assume.assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+		final CompletableFuture<Process> started = new CompletableFuture<>();
+		final Watch watch = new Watch(null) {
+			@Override
+			protected void install(Context<BulldozerProject> context, Set<String> names) {
+				try {
+					final Process process = new ProcessBuilder("sleep", "60").start();
+					started.complete(process);
+					process.waitFor();
+				} catch (IOException | InterruptedException exception) {
+					throw new RuntimeException(exception);
+				}
+			}
+		};
+		watch.getPending().add("project");
+		watch.build();
+		final Process process = started.get();
+
+		watch.cancel();
+		Assert.assertFalse(watch.getBuilder().isAlive());
+		Assert.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+		Assert.assertEquals(HCollection.asSet("project"), watch.getPending());
+	}
+
+	@Test(timeout = 30000)
+	public void collect() throws Throwable {
+		final Path a = folder.newFolder("a").toPath(), b = folder.newFolder("b").toPath();
+		try (final WatchService watcher = FileSystems.getDefault().newWatchService()) {
+			watch.getDirectories().put(a.toAbsolutePath().normalize(), "a");
+			watch.getDirectories().put(b.toAbsolutePath().normalize(), "b");
+			watch.register(watcher, a);
+			watch.register(watcher, b);
+
+			// Changes which arrive before the workspace goes quiet are collected together
+			final Thread writer = new Thread(() -> {
+				try {
+					Files.writeString(a.resolve("A.java"), "a");
+					Thread.sleep(watch.getDebounce() / 5);
+					Files.writeString(b.resolve("B.java"), "b");
+				} catch (IOException | InterruptedException exception) {
+					throw new RuntimeException(exception);
+				}
+			});
+			writer.start();
+			final Set<String> changed = new LinkedHashSet<>();
+			Assert.assertFalse(watch.collect(watcher, changed));
+			writer.join();
+			Assert.assertEquals(HCollection.asSet("a", "b"), changed);
+
+			// Ignored files don't count as changes, and POMs are reported
+			changed.clear();
+			Files.writeString(a.resolve("bulldozer-state.json"), "{}");
+			Files.writeString(b.resolve("pom.xml"), "<project/>");
+			Assert.assertTrue(watch.collect(watcher, changed));
+			Assert.assertEquals(HCollection.asSet("b"), changed);
+		}
+	}
+
+	@Test
+	public void ignored() {
+		Assert.assertTrue(watch.isIgnored(Paths.get("project", "target")));
+		Assert.assertTrue(watch.isIgnored(Paths.get("project", ".git")));
+		Assert.assertTrue(watch.isIgnored(Paths.get("project", "bulldozer-state.json")));
+		Assert.assertFalse(watch.isIgnored(Paths.get("project", "src")));
+	}
+
+	@Test
+	public void model() {
+		Assert.assertTrue(watch.isModel(Paths.get("project", "pom.xml")));
+		Assert.assertTrue(watch.isModel(Paths.get("project", "module", "pom.xml")));
+		Assert.assertFalse(watch.isModel(Paths.get("project", "src", "main", "java", "Main.java")));
+	}
+
+	@Test
+	public void schedule() {
+		final Map<String, BulldozerDependencies> dependencies = new LinkedHashMap<>();
+		dependencies.put("lib", BulldozerDependencies.builder().build());
+		dependencies.put("app", BulldozerDependencies.builder().transitive("lib", "1.0.0").immediate("lib", "1.0.0").build());
+		dependencies.put("other", BulldozerDependencies.builder().build());
+		final BulldozerGraph graph = BulldozerGraph.create("hash", dependencies);
+
+		watch.getPending().add("other");
+		watch.getPending().add("removed");
+		Assert.assertEquals(HCollection.asSet("lib", "app"), watch.schedule(graph, HCollection.asSet("lib", "app", "other"), HCollection.asSet("lib")));
+		Assert.assertEquals(HCollection.asSet("lib", "app", "other"), watch.getPending());
+	}
+}
@@ -0,0 +1,123 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+import com.g2forge.alexandria.java.io.file.HFile;
+
+public class TestCachingMaven {
+	protected static final Path ARTIFACT = Paths.get("com", "example", "example", "1.0.0-SNAPSHOT");
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	protected final List<String> calls = new CopyOnWriteArrayList<>();
+
+	protected Path repository;
+
+	protected Path project;
+
+	protected String key = "key";
+
+	protected CachingMaven create(boolean shared) throws IOException {
+		final IMaven maven = (IMaven) Proxy.newProxyInstance(IMaven.class.getClassLoader(), new Class<?>[] { IMaven.class }, (proxy, method, args) -> {
+			calls.add(method.getName());
+			// Installing writes the artifact to the local repository
+			if (method.getName().equals("install")) {
+				Files.createDirectories(repository.resolve(ARTIFACT));
+				Files.write(repository.resolve(ARTIFACT).resolve("example.jar"), key.getBytes(StandardCharsets.UTF_8));
+			}
+			return null;
+		});
+		final CachingMaven.IDescriber describer = path -> path.equals(project) ? CachingMaven.Entry.builder().key(key).repository(repository).artifact(ARTIFACT).build() : null;
+		return new CachingMaven(maven, describer, folder.getRoot().toPath().resolve("cache"), shared ? folder.getRoot().toPath().resolve("shared") : null);
+	}
+
+	@Test
+	public void changed() throws IOException {
+		final CachingMaven maven = create(false);
+		maven.install(project, false, HCollection.emptyList());
+		key = "changed";
+		maven.install(project, false, HCollection.emptyList());
+		Assert.assertEquals(HCollection.asList("install", "install"), calls);
+	}
+
+	@Test
+	public void hit() throws IOException {
+		final CachingMaven maven = create(false);
+		maven.install(project, false, HCollection.emptyList());
+		HFile.delete(repository.resolve(ARTIFACT), true);
+
+		maven.install(project, false, HCollection.emptyList());
+		Assert.assertEquals(HCollection.asList("install"), calls);
+		Assert.assertEquals(key, new String(Files.readAllBytes(repository.resolve(ARTIFACT).resolve("example.jar")), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void properties() throws IOException {
+		final CachingMaven maven = create(false);
+		maven.install(project, false, HCollection.emptyList(), Map.of("maven.repo.local", "elsewhere"));
+		maven.install(project, false, HCollection.emptyList(), Map.of("maven.repo.local", "elsewhere"));
+		Assert.assertEquals(HCollection.asList("install", "install"), calls);
+	}
+
+	@Test
+	public void race() throws IOException {
+		final CachingMaven maven = create(false);
+		final Path source = folder.newFolder("source").toPath();
+		Files.write(source.resolve("example.jar"), key.getBytes(StandardCharsets.UTF_8));
+		// Publishing over a build which someone else already cached should quietly keep theirs
+		final Path target = maven.publish(source, folder.getRoot().toPath().resolve("cache"), key);
+		Assert.assertEquals(target, maven.publish(source, folder.getRoot().toPath().resolve("cache"), key));
+		Assert.assertTrue(Files.isRegularFile(target.resolve("example.jar")));
+	}
+
+	@Before
+	public void setup() throws IOException {
+		repository = folder.newFolder("repository").toPath();
+		project = folder.newFolder("project").toPath();
+	}
+
+	@Test
+	public void shared() throws IOException {
+		create(true).install(project, false, HCollection.emptyList());
+		HFile.delete(repository.resolve(ARTIFACT), true);
+		HFile.delete(folder.getRoot().toPath().resolve("cache"), true);
+
+		create(true).install(project, false, HCollection.emptyList());
+		Assert.assertEquals(HCollection.asList("install"), calls);
+		Assert.assertTrue(Files.isRegularFile(repository.resolve(ARTIFACT).resolve("example.jar")));
+	}
+
+	@Test
+	public void uncached() throws IOException {
+		final CachingMaven maven = create(false);
+		final Path other = folder.newFolder("other").toPath();
+		maven.install(other, false, HCollection.emptyList());
+		maven.install(other, false, HCollection.emptyList());
+		maven.verify(other);
+		Assert.assertEquals(HCollection.asList("install", "install", "verify"), calls);
+	}
+
+	@Test
+	public void verify() throws IOException {
+		final CachingMaven maven = create(false);
+		maven.verify(project);
+		maven.verify(project);
+		Assert.assertEquals(HCollection.asList("verify"), calls);
+	}
+}
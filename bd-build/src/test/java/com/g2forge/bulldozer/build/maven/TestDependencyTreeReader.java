@@ -0,0 +1,36 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestDependencyTreeReader {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void modules() throws IOException {
+		final StringBuilder json = new StringBuilder();
+		json.append("{\"groupId\":\"com.example\",\"artifactId\":\"ex-a\",\"version\":\"0.0.1\",\"type\":\"jar\",\"scope\":\"\",\"classifier\":\"\",\"optional\":\"false\",\"children\":[");
+		json.append("{\"groupId\":\"com.upstream\",\"artifactId\":\"up-a\",\"version\":\"1.0.0\",\"type\":\"jar\",\"scope\":\"compile\",\"classifier\":\"\",\"optional\":\"false\",\"children\":[");
+		json.append("{\"groupId\":\"com.base\",\"artifactId\":\"base\",\"version\":\"2.0.0\",\"type\":\"jar\",\"scope\":\"compile\",\"classifier\":\"\",\"optional\":\"false\"}");
+		json.append("]}]}\n");
+		json.append("{\"groupId\":\"com.example\",\"artifactId\":\"ex-b\",\"version\":\"0.0.1\",\"type\":\"pom\",\"scope\":\"\",\"classifier\":\"\",\"optional\":\"false\",\"children\":[]}\n");
+		final Path path = folder.newFile("tree.json").toPath();
+		Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+
+		final List<String> actual = new ArrayList<>();
+		DependencyTreeReader.read(path, (depth, descriptor) -> actual.add(depth + " " + descriptor.getGroupId() + ":" + descriptor.getArtifactId() + ":" + descriptor.getVersion()));
+		Assert.assertEquals(HCollection.asList("0 com.example:ex-a:0.0.1", "1 com.upstream:up-a:1.0.0", "2 com.base:base:2.0.0", "0 com.example:ex-b:0.0.1"), actual);
+	}
+}
@@ -1,9 +1,19 @@
 package com.g2forge.bulldozer.build.maven;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.g2forge.alexandria.java.core.helpers.HCollection;
 import com.g2forge.alexandria.java.core.resource.Resource;
+import com.g2forge.alexandria.java.project.HProject;
 import com.g2forge.alexandria.test.HAssert;
 import com.g2forge.bulldozer.build.maven.POM.POMBuilder;
 import com.g2forge.bulldozer.build.maven.Profile.ProfileBuilder;
@@ -12,6 +22,27 @@ import com.g2forge.bulldozer.build.maven.distribution.DistributionRepository;
 import com.g2forge.bulldozer.build.maven.distribution.DistributionSnapshotRepository;
 
 public class TestPOM {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	protected Path write(Path directory, POM pom) throws IOException {
+		Files.createDirectories(directory);
+		POM.getXmlMapper().writeValue(directory.resolve(HProject.POM).toFile(), pom);
+		return directory;
+	}
+
+	@Test
+	public void readModules() throws IOException {
+		final Path root = folder.getRoot().toPath();
+		write(root, POM.builder().groupId("com.example").artifactId("root").module("a").module("missing").profile(Profile.builder().id("private").module("b").build()).build_());
+		write(root.resolve("a"), POM.builder().artifactId("ex-a").module("../a/c").build_());
+		write(root.resolve("a").resolve("c"), POM.builder().artifactId("ex-c").build_());
+		write(root.resolve("b"), POM.builder().groupId("com.other").artifactId("ex-b").build_());
+
+		final List<String> actual = POM.readModules(root).keySet().stream().map(path -> root.relativize(path).toString().replace('\\', '/')).toList();
+		Assert.assertEquals(HCollection.asList("pom.xml", "a/pom.xml", "b/pom.xml", "a/c/pom.xml"), actual);
+	}
+
 	@Test
 	public void repositories() throws JsonProcessingException {
 		final POMBuilder pom = POM.builder();
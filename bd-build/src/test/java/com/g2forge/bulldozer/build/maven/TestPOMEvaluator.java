@@ -0,0 +1,59 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.alexandria.java.project.HProject;
+
+public class TestPOMEvaluator {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	protected Path parent;
+
+	protected Path child;
+
+	protected static void write(Path directory, POM pom) throws IOException {
+		Files.createDirectories(directory);
+		POM.getXmlMapper().writeValue(directory.resolve(HProject.POM).toFile(), pom);
+	}
+
+	@Before
+	public void setup() throws IOException {
+		final Path root = folder.getRoot().toPath().toAbsolutePath().normalize();
+		parent = root.resolve("ex-project");
+		child = root.resolve("ex-child");
+
+		write(parent, POM.builder().modelVersion("4.0.0").groupId("com.example").artifactId("ex-project").version("0.0.1-SNAPSHOT").packaging("pom").parent(Parent.builder().groupId("com.upstream").artifactId("up-project").version("1.0.0").build()).property("base.version", "1.2.3").build_());
+		write(child, POM.builder().modelVersion("4.0.0").artifactId("ex-child").parent(Parent.builder().groupId("com.example").artifactId("ex-project").version("0.0.1-SNAPSHOT").relativePath("../ex-project/pom.xml").build()).property("derived.version", "${base.version}-${project.artifactId}").build_());
+	}
+
+	@Test
+	public void inherited() {
+		final POMEvaluator evaluator = new POMEvaluator(null);
+		Assert.assertEquals("com.example", evaluator.evaluate(child, "project.groupId"));
+		Assert.assertEquals("0.0.1-SNAPSHOT", evaluator.evaluate(child, "project.version"));
+		Assert.assertEquals("com.example", evaluator.evaluate(child, "project.parent.groupId"));
+		Assert.assertEquals(parent.toString(), evaluator.evaluate(child, "project.parent.basedir"));
+	}
+
+	@Test
+	public void interpolated() {
+		Assert.assertEquals("1.2.3-ex-child", new POMEvaluator(null).evaluate(child, "derived.version"));
+	}
+
+	@Test
+	public void remoteParent() {
+		final POMEvaluator evaluator = new POMEvaluator(null);
+		Assert.assertEquals("com.upstream", evaluator.evaluate(parent, "project.parent.groupId"));
+		Assert.assertNull(evaluator.resolve(parent, "project.parent.basedir"));
+		Assert.assertNull(evaluator.resolve(child, "unknown.property"));
+	}
+}
@@ -0,0 +1,48 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPOMVersionRewriter {
+	protected static final String INPUT = String.join("\n", //
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>", //
+			"<project xmlns=\"http://maven.apache.org/POM/4.0.0\">", //
+			"\t<parent>", //
+			"\t\t<groupId>com.upstream</groupId>", //
+			"\t\t<artifactId>up-project</artifactId>", //
+			"\t\t<version>0.0.1-SNAPSHOT</version>", //
+			"\t</parent>", //
+			"\t<!-- Keep this comment -->", //
+			"\t<properties>", //
+			"\t\t<up.version>  0.0.1-SNAPSHOT </up.version>", //
+			"\t\t<other.version>1.0.0</other.version>", //
+			"\t</properties>", //
+			"\t<dependencies>", //
+			"\t\t<dependency><groupId>com.upstream</groupId><artifactId>up-b</artifactId><version>0.0.1-SNAPSHOT</version></dependency>", //
+			"\t\t<dependency><groupId>com.upstream</groupId><artifactId>up-a</artifactId><version>${up.version}</version></dependency>", //
+			"\t\t<dependency><groupId>com.other</groupId><artifactId>other</artifactId><version>0.0.1-SNAPSHOT</version></dependency>", //
+			"\t</dependencies>", //
+			"</project>", //
+			"");
+
+	@Test
+	public void rewrite() {
+		final String actual = new POMVersionRewriter(Map.of("com.upstream", "0.0.1")).rewrite(INPUT, Map.of("up.version", "0.0.1"));
+		final String expected = INPUT.replace("<version>0.0.1-SNAPSHOT</version>\n\t</parent>", "<version>0.0.1</version>\n\t</parent>").replace("  0.0.1-SNAPSHOT </up.version>", "  0.0.1 </up.version>").replace("up-b</artifactId><version>0.0.1-SNAPSHOT<", "up-b</artifactId><version>0.0.1<");
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void project() {
+		final String input = INPUT.replace("\t</parent>\n", "\t</parent>\n\t<version>0.0.2-SNAPSHOT</version>\n");
+		final String actual = new POMVersionRewriter(Map.of(), "0.0.2").rewrite(input, Map.of());
+		Assert.assertEquals(input.replace("<version>0.0.2-SNAPSHOT</version>", "<version>0.0.2</version>"), actual);
+	}
+
+	@Test
+	public void unchanged() {
+		Assert.assertSame(INPUT, new POMVersionRewriter(Map.of("com.unrelated", "1.0.0")).rewrite(INPUT, Map.of()));
+	}
+}
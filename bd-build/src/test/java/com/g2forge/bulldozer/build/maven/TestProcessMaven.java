@@ -0,0 +1,58 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestProcessMaven {
+	protected static final List<String> LAUNCHER = HCollection.concatenate(HCollection.asList("mvnd"), ProcessMaven.DAEMON_ARGUMENTS);
+
+	/**
+	 * Render a command line through the real command proxy, stopping before anything is run.
+	 *
+	 * @param action A call to the maven.
+	 * @return The command line which would have been run.
+	 */
+	protected static List<String> render(Consumer<IMaven> action) {
+		final List<List<String>> rendered = new ArrayList<>();
+		final IMaven maven = ProcessMaven.create(LAUNCHER, invocation -> {
+			rendered.add(new ArrayList<>(invocation.getArguments()));
+			throw new UnsupportedOperationException();
+		});
+		try {
+			action.accept(maven);
+		} catch (RuntimeException exception) {}
+		Assert.assertEquals(1, rendered.size());
+		return rendered.get(0);
+	}
+
+	@Test
+	public void install() {
+		final List<String> actual = render(maven -> maven.install(Paths.get("."), true, HCollection.emptyList()));
+		Assert.assertEquals(HCollection.asList("mvnd", "-Dmvnd.rawStreams=true", "-T1", "clean", "install", "-DskipTests"), actual.subList(0, 6));
+	}
+
+	@Test
+	public void installReactor() {
+		final List<String> actual = render(maven -> maven.installReactor(Paths.get("."), "1C", "reactor.log", HCollection.emptyList()));
+		Assert.assertEquals("mvn", actual.get(0));
+		Assert.assertEquals(HCollection.asList("--threads=1C"), actual.stream().filter(argument -> argument.startsWith("--threads") || argument.startsWith("-T")).toList());
+		Assert.assertTrue(actual.contains("-Dorg.slf4j.simpleLogger.showThreadName=true"));
+	}
+
+	@Test
+	public void launch() {
+		Assert.assertEquals(HCollection.asList("mvnd", "-Dmvnd.rawStreams=true", "-T1", "clean", "install", "-DskipTests"), ProcessMaven.launch(HCollection.asList("mvn", "clean", "install", "-DskipTests"), LAUNCHER));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notMaven() {
+		ProcessMaven.launch(HCollection.asList("git", "status"), HCollection.asList("mvnd"));
+	}
+}
@@ -0,0 +1,44 @@
+package com.g2forge.bulldozer.build.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestReactor {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void split() throws IOException {
+		final Path directory = folder.getRoot().toPath();
+		final Path log = directory.resolve("reactor.log");
+		Files.write(log, HCollection.asList(//
+				"Unattributed", //
+				"[main] [INFO] Reactor Build Order:", //
+				"[BuilderThread 1] [INFO] ------------------< com.a:a-project >------------------", //
+				"[BuilderThread 2] [INFO] ------------------< com.b:b-project >------------------", //
+				"[BuilderThread 1] [INFO] Building a", //
+				"[BuilderThread 2] [INFO] Building b", //
+				"Test output from b", //
+				"[BuilderThread 2] [INFO] ------------------< org.other:other >------------------", //
+				"[BuilderThread 2] [INFO] Building other", //
+				"Test output from other", //
+				"[BuilderThread 1] [ERROR] Failed a", //
+				"java.lang.AssertionError", //
+				"\tat com.a.TestA.test(TestA.java:1)"), StandardCharsets.UTF_8);
+
+		final Map<String, Path> logs = new Reactor(directory, Map.of()).split(log, group -> group.startsWith("com.") ? group.substring(4) : null);
+		Assert.assertEquals(HCollection.asSet("a", "b"), logs.keySet());
+		Assert.assertEquals(HCollection.asList("[BuilderThread 1] [INFO] ------------------< com.a:a-project >------------------", "[BuilderThread 1] [INFO] Building a", "[BuilderThread 1] [ERROR] Failed a", "java.lang.AssertionError", "\tat com.a.TestA.test(TestA.java:1)"), Files.readAllLines(logs.get("a"), StandardCharsets.UTF_8));
+		Assert.assertEquals(HCollection.asList("[BuilderThread 2] [INFO] ------------------< com.b:b-project >------------------", "[BuilderThread 2] [INFO] Building b", "Test output from b"), Files.readAllLines(logs.get("b"), StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,35 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestBulldozerGraph {
+	protected static BulldozerGraph create() {
+		final Map<String, BulldozerDependencies> dependencies = new LinkedHashMap<>();
+		dependencies.put("lib", BulldozerDependencies.builder().build());
+		dependencies.put("mid", BulldozerDependencies.builder().transitive("lib", "1.0.0").immediate("lib", "1.0.0").build());
+		dependencies.put("app", BulldozerDependencies.builder().transitive("lib", "1.0.0").transitive("mid", "1.0.0").immediate("mid", "1.0.0").build());
+		dependencies.put("other", BulldozerDependencies.builder().build());
+		return BulldozerGraph.create("hash", dependencies);
+	}
+
+	@Test
+	public void affected() {
+		Assert.assertEquals(HCollection.asSet("lib", "mid", "app"), create().getAffected(HCollection.asList("lib")));
+	}
+
+	@Test
+	public void affectedLeaf() {
+		Assert.assertEquals(HCollection.asSet("app", "other"), create().getAffected(HCollection.asList("app", "other")));
+	}
+
+	@Test
+	public void affectedUnknown() {
+		Assert.assertEquals(HCollection.asSet("new"), create().getAffected(HCollection.asList("new")));
+	}
+}
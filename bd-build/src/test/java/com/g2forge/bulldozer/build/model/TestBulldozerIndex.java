@@ -0,0 +1,100 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBulldozerIndex {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void compacted() {
+		final Path path = folder.getRoot().toPath().resolve(BulldozerIndex.BULLDOZER_INDEX);
+		final BulldozerIndex first = BulldozerIndex.open(path);
+		final BulldozerIndex second = BulldozerIndex.open(path);
+		second.put(BulldozerTemp.class, "b", BulldozerTemp.builder().hash("0").build());
+		// Enough updates to force the first index to compact the file, which must keep the entry written by the second
+		for (int i = 0; i < 100; i++) {
+			first.put(BulldozerTemp.class, "a", BulldozerTemp.builder().hash(Integer.toString(i)).build());
+		}
+		second.put(BulldozerTemp.class, "c", BulldozerTemp.builder().hash("0").build());
+
+		final BulldozerIndex reopened = BulldozerIndex.open(path);
+		Assert.assertEquals("99", reopened.get(BulldozerTemp.class, "a").getHash());
+		Assert.assertEquals("0", reopened.get(BulldozerTemp.class, "b").getHash());
+		Assert.assertEquals("0", reopened.get(BulldozerTemp.class, "c").getHash());
+	}
+
+	@Test
+	public void longKey() {
+		final BulldozerIndex index = BulldozerIndex.open(folder.getRoot().toPath().resolve(BulldozerIndex.BULLDOZER_INDEX));
+		final String key = String.join("", Collections.nCopies(0x10000, "a"));
+		try {
+			index.put(BulldozerTemp.class, key, BulldozerTemp.builder().hash("0").build());
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {}
+		Assert.assertNull(index.get(BulldozerTemp.class, key));
+	}
+
+	@Test
+	public void partial() throws IOException {
+		final Path path = folder.getRoot().toPath().resolve(BulldozerIndex.BULLDOZER_INDEX);
+		final BulldozerIndex index = BulldozerIndex.open(path);
+		index.put(BulldozerTemp.class, "a", BulldozerTemp.builder().hash("0").group("com.example.a").build());
+		index.put(BulldozerTemp.class, "b", BulldozerTemp.builder().hash("0").group("com.example.b").build());
+
+		// Simulate a crash part way through writing the last record
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		final BulldozerIndex reopened = BulldozerIndex.open(path);
+		Assert.assertEquals("com.example.a", reopened.get(BulldozerTemp.class, "a").getGroup());
+		Assert.assertNull(reopened.get(BulldozerTemp.class, "b"));
+		reopened.put(BulldozerTemp.class, "b", BulldozerTemp.builder().hash("1").group("com.example.b").build());
+		Assert.assertEquals("1", BulldozerIndex.open(path).get(BulldozerTemp.class, "b").getHash());
+	}
+
+	@Test
+	public void roundtrip() {
+		final Path path = folder.getRoot().toPath().resolve(BulldozerIndex.BULLDOZER_INDEX);
+		final BulldozerIndex index = BulldozerIndex.open(path);
+		for (int i = 0; i < 100; i++) {
+			final String version = Integer.toString(i);
+			index.put(BulldozerTemp.class, "a", BulldozerTemp.builder().hash("0").version(version).dependencies(BulldozerDependencies.builder().immediate("b", version).transitive("b", version).build()).build());
+		}
+		index.put(BulldozerTemp.class, "c", BulldozerTemp.builder().hash("0").build());
+		index.put(BulldozerTemp.class, "c", null);
+
+		final BulldozerIndex reopened = BulldozerIndex.open(path);
+		final BulldozerTemp temp = reopened.get(BulldozerTemp.class, "a");
+		Assert.assertEquals("99", temp.getVersion());
+		Assert.assertEquals("99", temp.getDependencies().getTransitive().get("b"));
+		Assert.assertNull(reopened.get(BulldozerTemp.class, "c"));
+	}
+
+	@Test
+	public void shared() {
+		final Path path = folder.getRoot().toPath().resolve(BulldozerIndex.BULLDOZER_INDEX);
+		final BulldozerIndex first = BulldozerIndex.open(path);
+		first.put(BulldozerTemp.class, "a", BulldozerTemp.builder().hash("0").build());
+		final BulldozerIndex second = BulldozerIndex.open(path);
+		first.put(BulldozerTemp.class, "b", BulldozerTemp.builder().hash("0").build());
+		// The second index hasn't seen b, but must not overwrite it
+		second.put(BulldozerTemp.class, "c", BulldozerTemp.builder().hash("0").build());
+		Assert.assertEquals("1", second.update(BulldozerTemp.class, "b", temp -> BulldozerTemp.builder().hash(Integer.toString(Integer.parseInt(temp.getHash()) + 1)).build()).getHash());
+
+		final BulldozerIndex reopened = BulldozerIndex.open(path);
+		Assert.assertEquals("0", reopened.get(BulldozerTemp.class, "a").getHash());
+		Assert.assertEquals("1", reopened.get(BulldozerTemp.class, "b").getHash());
+		Assert.assertEquals("0", reopened.get(BulldozerTemp.class, "c").getHash());
+	}
+}
@@ -0,0 +1,68 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.g2forge.alexandria.java.core.helpers.HCollection;
+
+public class TestDAGExecutor {
+	protected static DAGExecutor<String> create(int parallelism) {
+		final DAGExecutor<String> retVal = new DAGExecutor<>(parallelism);
+		retVal.node("a", HCollection.emptyList()).cost("a", 1);
+		retVal.node("b", HCollection.emptyList()).cost("b", 5);
+		retVal.node("c", HCollection.asList("b")).cost("c", 5);
+		retVal.node("d", HCollection.asList("a", "c")).cost("d", 1);
+		return retVal;
+	}
+
+	@Test
+	public void interrupt() throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean finished = new AtomicBoolean(false), waited = new AtomicBoolean(false);
+		final Thread thread = new Thread(() -> {
+			try {
+				new DAGExecutor<String>(1).node("a", HCollection.emptyList()).run(node -> {
+					started.countDown();
+					// Ignore interrupts, like a process runner which doesn't stop the process
+					final long end = System.currentTimeMillis() + 500;
+					while (System.currentTimeMillis() < end) {
+						try {
+							Thread.sleep(10);
+						} catch (InterruptedException exception) {}
+					}
+					finished.set(true);
+				});
+			} catch (RuntimeException exception) {}
+			waited.set(finished.get());
+		});
+		thread.start();
+		started.await();
+		thread.interrupt();
+		thread.join();
+		Assert.assertTrue(waited.get());
+	}
+
+	@Test
+	public void order() {
+		final List<String> order = new CopyOnWriteArrayList<>();
+		create(1).run(order::add);
+		Assert.assertEquals(HCollection.asList("b", "c", "a", "d"), order);
+	}
+
+	@Test
+	public void plan() {
+		final DAGExecutor.Plan<String> plan = create(2).plan();
+		Assert.assertEquals(11, plan.getMakespan());
+		Assert.assertEquals(HCollection.asList("b", "c", "d"), plan.getCriticalPath());
+	}
+
+	@Test
+	public void serial() {
+		Assert.assertEquals(12, create(1).plan().getMakespan());
+	}
+}
@@ -0,0 +1,43 @@
+package com.g2forge.bulldozer.build.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.g2forge.bulldozer.build.maven.DependencyTreeReader;
+
+public class TestDependenciesCollector {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void conflict() throws IOException {
+		// The verbose tree keeps the version of com.upstream which maven omitted in favor of the nearer one
+		final StringBuilder json = new StringBuilder();
+		json.append("{\"groupId\":\"com.example\",\"artifactId\":\"ex\",\"version\":\"0.0.1\",\"type\":\"jar\",\"scope\":\"\",\"classifier\":\"\",\"optional\":\"false\",\"children\":[");
+		json.append("{\"groupId\":\"com.upstream\",\"artifactId\":\"up-a\",\"version\":\"1.0.0\",\"type\":\"jar\",\"scope\":\"compile\",\"classifier\":\"\",\"optional\":\"false\"},");
+		json.append("{\"groupId\":\"com.middle\",\"artifactId\":\"mid\",\"version\":\"3.0.0\",\"type\":\"jar\",\"scope\":\"compile\",\"classifier\":\"\",\"optional\":\"false\",\"children\":[");
+		json.append("{\"groupId\":\"com.upstream\",\"artifactId\":\"up-a\",\"version\":\"2.0.0\",\"type\":\"jar\",\"scope\":\"compile\",\"classifier\":\"\",\"optional\":\"false\"}");
+		json.append("]}]}\n");
+		final Path path = folder.newFile("tree.json").toPath();
+		Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+
+		final DependenciesCollector collector = new DependenciesCollector("example", "com.example");
+		DependencyTreeReader.read(path, (depth, descriptor) -> {
+			if (depth > 0) collector.add(descriptor.getGroupId(), descriptor.getVersion(), depth == 1);
+		});
+		try {
+			collector.build(Collections.emptyMap(), () -> json.toString());
+			Assert.fail();
+		} catch (IllegalArgumentException exception) {
+			Assert.assertTrue(exception.getMessage(), exception.getMessage().contains("multiple versions of the project \"com.upstream\""));
+		}
+	}
+}